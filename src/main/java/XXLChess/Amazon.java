@@ -1,8 +1,5 @@
 package XXLChess;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Represents an Amazon chess piece.
  */
@@ -22,39 +19,33 @@ public class Amazon extends Piece {
     /**
      * Checks if a move for the Amazon piece is valid.
      *
+     * @param srcRow the row position of the source square
+     * @param srcCol the column position of the source square
      * @param destRow the row position of the destination square
      * @param destCol the column position of the destination square
      * @param board the game board
      * @return true if the move is valid, false otherwise
      */
     @Override
-    public boolean isMoveValid(int destRow, int destCol, Board board) {
-        // Amazon moves are valid if they follow the moves of a Bishop, Rook, or Knight piece
-        return new Bishop(row, col, isWhite).isMoveValid(destRow, destCol, board) ||
-               new Rook(row, col, isWhite).isMoveValid(destRow, destCol, board) ||
-               new Knight(row, col, isWhite).isMoveValid(destRow, destCol, board);
+    public boolean isMoveValid(int srcRow, int srcCol, int destRow, int destCol, Board board) {
+        // Amazon moves are valid if they follow the moves of a Queen or Knight piece
+        return definition(QUEEN, isWhite).isMoveValid(srcRow, srcCol, destRow, destCol, board) ||
+               definition(KNIGHT, isWhite).isMoveValid(srcRow, srcCol, destRow, destCol, board);
     }
 
     /**
-     * Gets all valid moves for the Amazon piece on the game board.
+     * Adds all valid moves for the Amazon piece on the game board to a move list.
      *
-     * @param row the row position of the piece on the board
-     * @param col the column position of the piece on the board
+     * @param square the square of the piece
+     * @param type the type code to record as the moving piece
      * @param board the game board
-     * @return a list of int arrays representing the valid moves
+     * @param moves the list to append the packed moves to
      */
     @Override
-    public List<int[]> getValidMoves(int row, int col, Board board) {
-        // Initialize an empty list to store valid moves
-        List<int[]> validMoves = new ArrayList<>();
-
-        // Get all valid moves for a Bishop, Rook, or Knight piece and add them to the validMoves list
-        validMoves.addAll(new Bishop(row, col, isWhite).getValidMoves(row, col, board));
-        validMoves.addAll(new Rook(row, col, isWhite).getValidMoves(row, col, board));
-        validMoves.addAll(new Knight(row, col, isWhite).getValidMoves(row, col, board));
-
-        // Return the list of valid moves
-        return validMoves;
+    protected void addMoves(int square, int type, Board board, MoveList moves) {
+        // Get all valid moves for a Queen or Knight piece and add them to the move list
+        definition(QUEEN, isWhite).addMoves(square, type, board, moves);
+        definition(KNIGHT, isWhite).addMoves(square, type, board, moves);
     }
 
     /**
@@ -64,5 +55,15 @@ public class Amazon extends Piece {
      */
     public double getPieceValue() {
         return 12.0;
-    }    
+    }
+
+    /**
+     * Gets the type code of the Amazon piece.
+     *
+     * @return {@link Piece#AMAZON}
+     */
+    @Override
+    public int getType() {
+        return AMAZON;
+    }
 }
@@ -1,6 +1,11 @@
 package XXLChess;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import processing.core.PApplet;
 import processing.core.PImage;
 
@@ -17,6 +22,8 @@ public class App extends PApplet {
     public boolean gameStarted = false;
     public boolean gameEnded = false;
     public boolean resigned = false;
+    public boolean checkmate = false;
+    public boolean stalemate = false;
 	
     // Board variables
     Board board;
@@ -59,6 +66,40 @@ public class App extends PApplet {
     public boolean ai = true;
     public int depth = 3;
 
+    // Size of the AI's transposition table in megabytes; the table is kept between moves
+    public static final int HASH_MEGABYTES = 16;
+    private final TranspositionTable transpositionTable = new TranspositionTable(HASH_MEGABYTES);
+
+    // Caches of the AI's position evaluations and pawn structure scores, kept between moves like the table
+    private final EvaluationCache evaluationCache = new EvaluationCache(MinMaxAI.EVALUATION_CACHE_ENTRIES);
+    private final EvaluationCache pawnCache = new EvaluationCache(MinMaxAI.PAWN_CACHE_ENTRIES);
+
+    // Lazy SMP helper threads searching alongside the AI, one for every other processor. Like the table, their
+    // pool is kept for the whole game; its threads are daemons so that they never keep the application alive
+    public static final int SEARCH_HELPERS = Runtime.getRuntime().availableProcessors() - 1;
+    private final ExecutorService helperPool = Executors.newFixedThreadPool(Math.max(1, SEARCH_HELPERS), task -> {
+        Thread thread = new Thread(task, "AI helper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // The AI searches on its own thread so that drawing and the clocks keep running; draw() polls for the
+    // result. The thread is a daemon so that it never keeps the application alive
+    private final ExecutorService aiExecutor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "AI search");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private MinMaxAI aiSearch;
+    private Future<int[]> aiResult;
+
+    // Pondering: while white thinks, the AI searches the position after the reply its last search expected,
+    // on the same thread, helper pool and transposition table
+    public boolean ponder = true;
+    private int[] ponderMove;
+    private MinMaxAI ponderSearch;
+    private Future<int[]> ponderResult;
+
     /**
      * Overrides the settings function to set the size of the game window to the
      * product of BOARD_WIDTH and CELL_SIZE plus SIDEBAR. Also sets lastTimeMillis
@@ -115,6 +156,7 @@ public class App extends PApplet {
         if (key == 'r' || key == 'R') {
             // Restart game and resetting necessary variables
             System.out.println("Restarting Game (R Key pressed)");
+            cancelAI();
             background(255);
             board = new Board();
             whiteTurn = true;
@@ -126,12 +168,15 @@ public class App extends PApplet {
             gameStarted = false;
             gameEnded = false;
             resigned = false;
+            checkmate = false;
+            stalemate = false;
             ai = true;
             depth = 3;
             redraw();
         } else if (key == 'e' || key == 'E') {
             // Resigning game and displaying resignation text
             System.out.println("Resigning Game (E Key pressed)");
+            cancelAI();
             if (gameStarted) {
                 drawResignation();
             }
@@ -183,10 +228,10 @@ public class App extends PApplet {
                     ai = !ai;
                 }
             } else {
-                // Checking if mouse clicked on board
+                // Checking if mouse clicked on board, unless the AI is thinking about its move
                 int row = mouseY / CELL_SIZE;
                 int col = mouseX / CELL_SIZE;
-                if (row >= 0 && row < Board.SIZE && col >= 0 && col < Board.SIZE) {
+                if (row >= 0 && row < Board.SIZE && col >= 0 && col < Board.SIZE && !(ai && !whiteTurn)) {
                     // Retrieving piece at mouse position
                     Piece piece = board.getPiece(row, col);
 
@@ -199,10 +244,15 @@ public class App extends PApplet {
                         }
                     } else {
                         // A piece is already selected
-                        if (selectedPiece.isMoveValid(row, col, board)) {
+                        if (board.isMoveValid(selectedRow, selectedCol, row, col)) {
                             System.out.println("Valid move: " + selectedPiece.getClass().getSimpleName() + " from (" + selectedRow + ", " + selectedCol + ") to (" + row + ", " + col + ")");
                             board.movePiece(selectedRow, selectedCol, row, col);
                             whiteTurn = !whiteTurn; // Switch turns
+                            checkPonder(selectedRow, selectedCol, row, col);
+                            if (checkGameOver()) {
+                                // Nothing is left for the AI to search
+                                cancelAI();
+                            }
                             selectedPiece = null; // Reset selected piece
                         } else if (piece != null && piece.isWhite == whiteTurn) {
                             // The user clicked on another piece of their color; change the selection
@@ -261,7 +311,7 @@ public class App extends PApplet {
             drawDepthButton();
             drawModeButton();
 
-            // Drawing winner if game has ended or if the king is captured
+            // Drawing winner if game has ended (by checkmate, stalemate or the clock) or if the king is captured
             if (gameEnded || isKingCaptured()) {
                 drawWinner();
             }
@@ -269,9 +319,14 @@ public class App extends PApplet {
             // Drawing highlights for when moving pieces
             drawHighlights();
 
-            // Running AI if enabled (from button) and if it's not white's turn
-            if (ai && !whiteTurn) {
-                runAI();
+            // Running AI if enabled (from button) and if it's not white's turn: the search is started in the
+            // background, and its move is played on the first frame after it has finished
+            if (ai && !whiteTurn && !gameEnded) {
+                if (aiResult == null) {
+                    startAI();
+                } else {
+                    pollAI();
+                }
             }
         }
     }
@@ -438,6 +493,7 @@ public class App extends PApplet {
      * Draws the winner text on the screen.
      * The winner text is displayed at the center of the board and
      * indicates who has won the game or if the game ended in a tie.
+     * A checkmated player loses, and a stalemate is a draw.
      */
     private void drawWinner() {
         textAlign(CENTER, CENTER);
@@ -447,7 +503,10 @@ public class App extends PApplet {
         String winnerText;
 
         // Figuring out winner
-        if (isKingCaptured()) {
+        if (stalemate) {
+            winnerText = "Stalemate!\nDraw";
+        } else if (checkmate || isKingCaptured()) {
+            // The player to move has been mated or has lost their king
             if (whiteTurn) {
                 winnerText = "Black wins!";
             } else {
@@ -489,31 +548,11 @@ public class App extends PApplet {
      * @return The index of the piece, or -1 if the piece is not recognized.
      */
     public int getPieceIndex(Piece piece) {
-        if (piece instanceof XXLChess.Pawn) {
-            return 0;
-        } else if (piece instanceof XXLChess.Rook) {
-            return 1;
-        } else if (piece instanceof XXLChess.Knight) {
-            return 2;
-        } else if (piece instanceof XXLChess.Bishop) {
-            return 3;
-        } else if (piece instanceof XXLChess.Archbishop) {
-            return 4;
-        } else if (piece instanceof XXLChess.Camel) {
-            return 5;
-        } else if (piece instanceof XXLChess.Guard) {
-            return 6;
-        } else if (piece instanceof XXLChess.Amazon) {
-            return 7;
-        } else if (piece instanceof XXLChess.King) {
-            return 8;
-        } else if (piece instanceof XXLChess.Chancellor) {
-            return 9;
-        } else if (piece instanceof XXLChess.Queen) {
-            return 10;
-        } else {
+        // Piece type codes follow the order the images are loaded in
+        if (piece == null) {
             return -1;
         }
+        return piece.getType();
     }
 
     /**
@@ -531,42 +570,203 @@ public class App extends PApplet {
      * @return true if the white king has been captured or if the black king has been captured, false otherwise
      */
     public boolean isKingCaptured() {
-        boolean whiteKingCaptured = true;
-        boolean blackKingCaptured = true;
-    
-        // Running through all rows and columns
-        for (int row = 0; row < Board.SIZE; row++) {
-            for (int col = 0; col < Board.SIZE; col++) {
-                Piece piece = board.getPiece(row, col);
-                if (piece instanceof King) {
-                    if (piece.isWhite) {
-                        whiteKingCaptured = false;
-                    } else {
-                        blackKingCaptured = false;
-                    }
-    
-                    if (!whiteKingCaptured && !blackKingCaptured) {
-                        return false;
-                    }
-                }
+        // The board keeps track of where each king stands
+        return board.getKingSquare(true) < 0 || board.getKingSquare(false) < 0;
+    }
+
+    /**
+     * Checks whether the player to move is checkmated or stalemated and, if so, ends the game. It is called
+     * whenever a move has been played or is about to be searched for, rather than on every frame.
+     *
+     * @return true if the game has ended, for this or any other reason, false otherwise
+     */
+    public boolean checkGameOver() {
+        if (!gameEnded) {
+            if (board.isCheckmate(whiteTurn)) {
+                checkmate = true;
+                gameEnded = true;
+            } else if (board.isStalemate(whiteTurn)) {
+                stalemate = true;
+                gameEnded = true;
             }
         }
-    
-        return whiteKingCaptured || blackKingCaptured;
+        return gameEnded;
     }
 
     /**
      * Runs the AI algorithm to determine the best move for the current player and updates the board accordingly.
-     * Uses the MinMaxAB algorithm to find the best move.
+     * Uses the MinMaxAB algorithm to find the best move, deepening up to the selected depth within a share of
+     * black's remaining time. Nothing is searched once the game is over.
      */
     public void runAI() {
+        if (checkGameOver()) {
+            return;
+        }
+
         // Calling MinMaxAB algorithm
-        MinMaxAI aiCheck = new MinMaxAI(board, depth, false);
-        int[] bestMove = aiCheck.getBestMove();
+        MinMaxAI aiCheck = createAI(new Board(board));
+        playAIMove(aiCheck, aiCheck.getBestMove());
+    }
+
+    /**
+     * Starts the AI's search for black's move on a background thread, unless one is already running. The
+     * search works on a copy of the board, so the board can be drawn meanwhile; {@link #pollAI} plays the
+     * move once it is found. No search is started once the game is over, such as when black has been
+     * checkmated or stalemated.
+     */
+    public void startAI() {
+        if (aiResult == null && !checkGameOver()) {
+            MinMaxAI search = createAI(new Board(board));
+            aiSearch = search;
+            aiResult = aiExecutor.submit(search::getBestMove);
+        }
+    }
+
+    /**
+     * Plays the AI's move if its background search has finished, then starts pondering on white's time.
+     *
+     * @return true if a move was played, false if no search is running or it has not finished yet
+     */
+    public boolean pollAI() {
+        if (aiResult == null || !aiResult.isDone()) {
+            return false;
+        }
+        int[] bestMove;
+        try {
+            bestMove = aiResult.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("AI search failed", e.getCause());
+        } finally {
+            aiResult = null;
+        }
+        MinMaxAI search = aiSearch;
+        aiSearch = null;
+        playAIMove(search, bestMove);
+        startPondering(search);
+        return true;
+    }
+
+    /**
+     * Starts searching, in the background and without a time limit, the position reached if white plays the
+     * reply the AI's last search expected: the second move of its principal variation. Nothing is started
+     * when pondering is off, the game is over or the search did not look that far ahead.
+     *
+     * @param search the search that found the move just played
+     */
+    private void startPondering(MinMaxAI search) {
+        int[] line = search.getPrincipalVariation();
+        if (!ponder || gameEnded || !whiteTurn || line.length < 2) {
+            return;
+        }
+        int[] predicted = Move.toArray(line[1]);
+        if (!board.isMoveValid(predicted[0], predicted[1], predicted[2], predicted[3])) {
+            return;
+        }
+        Board position = new Board(board);
+        position.movePiece(predicted[0], predicted[1], predicted[2], predicted[3]);
+        MinMaxAI ponderer = createAI(position);
+        ponderer.setTimeLeft(-1);
+        ponderMove = predicted;
+        ponderSearch = ponderer;
+        ponderResult = aiExecutor.submit(ponderer::getBestMove);
+    }
+
+    /**
+     * Checks white's move against the one the AI is pondering on. On a match the ponder search becomes the
+     * AI's search and is put on black's clock, so its move is ready at once or soon after; otherwise it is
+     * stopped along with its helpers, which frees the helper pool, and the AI's turn starts a fresh search
+     * that still finds the pondered positions in the transposition table.
+     *
+     * @param srcRow the row white moved from
+     * @param srcCol the column white moved from
+     * @param destRow the row white moved to
+     * @param destCol the column white moved to
+     */
+    public void checkPonder(int srcRow, int srcCol, int destRow, int destCol) {
+        if (ponderResult == null) {
+            return;
+        }
+        if (Arrays.equals(ponderMove, new int[]{srcRow, srcCol, destRow, destCol})) {
+            System.out.println("Ponder hit");
+            ponderSearch.ponderHit(blackTimeLeft);
+            aiSearch = ponderSearch;
+            aiResult = ponderResult;
+        } else {
+            System.out.println("Ponder miss");
+            ponderSearch.stop();
+        }
+        ponderMove = null;
+        ponderSearch = null;
+        ponderResult = null;
+    }
+
+    /**
+     * Returns the move of white's the AI is pondering on.
+     *
+     * @return the expected move as {@code [startRow, startCol, endRow, endCol]}, or null if not pondering
+     */
+    public int[] getPonderMove() {
+        return ponderMove == null ? null : ponderMove.clone();
+    }
+
+    /**
+     * Cancels the AI's background search or pondering, if one is running, and discards its move. The search
+     * notices the cancellation within a few thousand positions and its thread is then free for the next one.
+     */
+    public void cancelAI() {
+        if (aiSearch != null) {
+            aiSearch.stop();
+        }
+        if (ponderSearch != null) {
+            ponderSearch.stop();
+        }
+        aiSearch = null;
+        aiResult = null;
+        ponderMove = null;
+        ponderSearch = null;
+        ponderResult = null;
+    }
+
+    /**
+     * Checks whether the AI's background search is running or has a move waiting to be played.
+     *
+     * @return true if a search has been started and its move not played or cancelled yet, false otherwise
+     */
+    public boolean isAIThinking() {
+        return aiResult != null;
+    }
+
+    /**
+     * Creates a search for black's move with the selected depth and black's remaining time.
+     *
+     * @param position the position to search, a copy of the board that nothing else changes
+     * @return the new search
+     */
+    private MinMaxAI createAI(Board position) {
+        MinMaxAI search = new MinMaxAI(position, depth, false, transpositionTable, evaluationCache, pawnCache);
+        search.setTimeLeft(blackTimeLeft);
+        search.setHelpers(SEARCH_HELPERS, helperPool);
+        return search;
+    }
+
+    /**
+     * Plays a move found by the AI on the board and passes the turn to white, then ends the game if white is
+     * checkmated or stalemated. When the search found no move, nothing is played; if that is because black
+     * has no legal moves, the game ends instead.
+     *
+     * @param search the search that found the move
+     * @param bestMove the move as {@code [startRow, startCol, endRow, endCol]}, or null if there was none
+     */
+    private void playAIMove(MinMaxAI search, int[] bestMove) {
+        System.out.println("AI line at depth " + search.getCompletedDepth() + ": " + search.getPrincipalVariationText());
         if (bestMove != null) {
             board.movePiece(bestMove[0], bestMove[1], bestMove[2], bestMove[3]);
             whiteTurn = !whiteTurn;
         }
+        checkGameOver();
     }
 
     /**
@@ -1,8 +1,5 @@
 package XXLChess;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Represents an Archbishop chess piece.
  */
@@ -22,33 +19,31 @@ public class Archbishop extends Piece {
     /**
      * Checks if a move for the Archbishop piece is valid.
      *
+     * @param srcRow the row position of the source square
+     * @param srcCol the column position of the source square
      * @param destRow the row position of the destination square
      * @param destCol the column position of the destination square
      * @param board the game board
      * @return true if the move is valid, false otherwise
      */
     @Override
-    public boolean isMoveValid(int destRow, int destCol, Board board) {
-        return new Bishop(row, col, isWhite).isMoveValid(destRow, destCol, board) ||
-               new Knight(row, col, isWhite).isMoveValid(destRow, destCol, board);
+    public boolean isMoveValid(int srcRow, int srcCol, int destRow, int destCol, Board board) {
+        return definition(BISHOP, isWhite).isMoveValid(srcRow, srcCol, destRow, destCol, board) ||
+               definition(KNIGHT, isWhite).isMoveValid(srcRow, srcCol, destRow, destCol, board);
     }
 
     /**
-     * Gets all valid moves for the Archbishop piece on the game board.
+     * Adds all valid moves for the Archbishop piece on the game board to a move list.
      *
-     * @param row the row position of the piece on the board
-     * @param col the column position of the piece on the board
+     * @param square the square of the piece
+     * @param type the type code to record as the moving piece
      * @param board the game board
-     * @return a list of int arrays representing the valid moves
+     * @param moves the list to append the packed moves to
      */
     @Override
-    public List<int[]> getValidMoves(int row, int col, Board board) {
-        List<int[]> validMoves = new ArrayList<>();
-
-        validMoves.addAll(new Bishop(row, col, isWhite).getValidMoves(row, col, board));
-        validMoves.addAll(new Knight(row, col, isWhite).getValidMoves(row, col, board));
-
-        return validMoves;
+    protected void addMoves(int square, int type, Board board, MoveList moves) {
+        definition(BISHOP, isWhite).addMoves(square, type, board, moves);
+        definition(KNIGHT, isWhite).addMoves(square, type, board, moves);
     }
 
     /**
@@ -58,5 +53,15 @@ public class Archbishop extends Piece {
      */
     public double getPieceValue() {
         return 7.5;
-    }    
+    }
+
+    /**
+     * Gets the type code of the Archbishop piece.
+     *
+     * @return {@link Piece#ARCHBISHOP}
+     */
+    @Override
+    public int getType() {
+        return ARCHBISHOP;
+    }
 }
@@ -0,0 +1,219 @@
+package XXLChess;
+
+import java.util.Arrays;
+
+/**
+ * Precomputed attack tables, built once when the class is loaded.
+ *
+ * The leaper tables hold one bitboard (see {@link Bitboard}) per square, stored at offset
+ * {@code square * Bitboard.WORDS}, with the squares a piece standing on that square attacks, so generating a
+ * leaper's moves is a lookup instead of a loop over offsets with bounds checks.
+ *
+ * Sliding pieces use rays: for every square and each of the eight {@link #DIRECTION_COUNT directions} the
+ * squares from the nearest outwards to the edge of the board, both as a list and as a bitboard. The first
+ * piece on a ray is then found with one bitboard scan (see {@link Board#firstBlocker}) instead of stepping
+ * square by square, which matters on the long files and diagonals of a 14x14 board.
+ */
+public final class AttackTables {
+    private static final int[][] KNIGHT_OFFSETS = {
+        {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2},
+        {1, -2}, {1, 2}, {2, -1}, {2, 1}
+    };
+    private static final int[][] CAMEL_OFFSETS = {
+        {-3, -1}, {-3, 1}, {-1, -3}, {-1, 3},
+        {1, -3}, {1, 3}, {3, -1}, {3, 1}
+    };
+    private static final int[][] KING_OFFSETS = {
+        {-1, -1}, {-1, 0}, {-1, 1}, {0, -1},
+        {0, 1}, {1, -1}, {1, 0}, {1, 1}
+    };
+
+    /** Number of sliding directions. */
+    public static final int DIRECTION_COUNT = 8;
+
+    // Row and column step of each direction; the first four are orthogonal, the last four diagonal
+    private static final int[][] DIRECTIONS = {
+        {1, 0}, {-1, 0}, {0, 1}, {0, -1},
+        {1, 1}, {-1, 1}, {-1, -1}, {1, -1}
+    };
+
+    // Direction pointing the other way, for each direction
+    private static final int[] OPPOSITE = {1, 0, 3, 2, 6, 7, 4, 5};
+
+    /** Directions a Rook slides in. */
+    public static final int[] ROOK_DIRECTIONS = {0, 1, 2, 3};
+
+    /** Directions a Bishop slides in. */
+    public static final int[] BISHOP_DIRECTIONS = {4, 5, 6, 7};
+
+    /** Directions a Queen slides in, diagonals first. */
+    public static final int[] QUEEN_DIRECTIONS = {4, 5, 6, 7, 0, 1, 2, 3};
+
+    // Squares of each ray, nearest first, at (square * DIRECTION_COUNT + direction) * (SIZE - 1)
+    private static final int[] RAY_SQUARES = new int[Board.SQUARES * DIRECTION_COUNT * (Board.SIZE - 1)];
+    private static final int[] RAY_LENGTHS = new int[Board.SQUARES * DIRECTION_COUNT];
+
+    /** Bitboard of each ray, at offset {@link #rayOffset}. */
+    public static final long[] RAYS = new long[Board.SQUARES * DIRECTION_COUNT * Bitboard.WORDS];
+
+    // Direction leading from one square to another (from * SQUARES + to), or -1 if they share no line
+    private static final byte[] DIRECTION_BETWEEN = new byte[Board.SQUARES * Board.SQUARES];
+
+    static {
+        Arrays.fill(DIRECTION_BETWEEN, (byte) -1);
+        for (int square = 0; square < Board.SQUARES; square++) {
+            for (int direction = 0; direction < DIRECTION_COUNT; direction++) {
+                int ray = square * DIRECTION_COUNT + direction;
+                int newRow = Board.rowOf(square) + DIRECTIONS[direction][0];
+                int newCol = Board.colOf(square) + DIRECTIONS[direction][1];
+                while (newRow >= 0 && newRow < Board.SIZE && newCol >= 0 && newCol < Board.SIZE) {
+                    int target = Board.square(newRow, newCol);
+                    RAY_SQUARES[ray * (Board.SIZE - 1) + RAY_LENGTHS[ray]++] = target;
+                    Bitboard.set(RAYS, ray * Bitboard.WORDS, target);
+                    DIRECTION_BETWEEN[square * Board.SQUARES + target] = (byte) direction;
+                    newRow += DIRECTIONS[direction][0];
+                    newCol += DIRECTIONS[direction][1];
+                }
+            }
+        }
+    }
+
+    /** Squares attacked by a Knight. */
+    public static final long[] KNIGHT = leaperTable(KNIGHT_OFFSETS);
+
+    /** Squares attacked by a Camel, which leaps three squares one way and one the other. */
+    public static final long[] CAMEL = leaperTable(CAMEL_OFFSETS);
+
+    /** Squares attacked by a King, without castling. */
+    public static final long[] KING = leaperTable(KING_OFFSETS);
+
+    /** Squares attacked by a Guard, the union of the Knight and King tables. */
+    public static final long[] GUARD = leaperTable(KNIGHT_OFFSETS, KING_OFFSETS);
+
+    private AttackTables() {
+    }
+
+    /**
+     * Checks whether a table marks the destination square as attacked from the source square.
+     *
+     * @param table the attack table
+     * @param from the source square
+     * @param to the destination square
+     * @return true if a piece on {@code from} attacks {@code to}, false otherwise
+     */
+    public static boolean attacks(long[] table, int from, int to) {
+        return Bitboard.test(table, from * Bitboard.WORDS, to);
+    }
+
+    /**
+     * Returns the offset of a ray's bitboard in {@link #RAYS}.
+     *
+     * @param square the square the ray starts from (not part of the ray)
+     * @param direction the direction of the ray
+     * @return the index of the ray's first word
+     */
+    public static int rayOffset(int square, int direction) {
+        return (square * DIRECTION_COUNT + direction) * Bitboard.WORDS;
+    }
+
+    /**
+     * Returns the number of squares between a square and the edge of the board in a direction.
+     *
+     * @param square the square the ray starts from
+     * @param direction the direction of the ray
+     * @return the length of the ray
+     */
+    public static int rayLength(int square, int direction) {
+        return RAY_LENGTHS[square * DIRECTION_COUNT + direction];
+    }
+
+    /**
+     * Returns a square of a ray, counted from the square next to the start.
+     *
+     * @param square the square the ray starts from
+     * @param direction the direction of the ray
+     * @param index the position on the ray, from 0 to {@code rayLength(square, direction) - 1}
+     * @return the square at that position
+     */
+    public static int raySquare(int square, int direction, int index) {
+        return RAY_SQUARES[(square * DIRECTION_COUNT + direction) * (Board.SIZE - 1) + index];
+    }
+
+    /**
+     * Checks whether a direction runs towards higher square indices, which decides whether the nearest
+     * square on its ray is the lowest or the highest one.
+     *
+     * @param direction the direction
+     * @return true if squares increase along the direction, false otherwise
+     */
+    public static boolean isIncreasing(int direction) {
+        return DIRECTIONS[direction][0] * Board.SIZE + DIRECTIONS[direction][1] > 0;
+    }
+
+    /**
+     * Checks whether a direction is diagonal rather than along a row or column.
+     *
+     * @param direction the direction
+     * @return true for the four diagonal directions, false otherwise
+     */
+    public static boolean isDiagonal(int direction) {
+        return direction >= ROOK_DIRECTIONS.length;
+    }
+
+    /**
+     * Returns the direction pointing the opposite way.
+     *
+     * @param direction the direction
+     * @return the reverse direction
+     */
+    public static int opposite(int direction) {
+        return OPPOSITE[direction];
+    }
+
+    /**
+     * Returns the direction leading from one square to another along a file, rank or diagonal.
+     *
+     * @param from the source square
+     * @param to the destination square
+     * @return the direction, or -1 if the squares do not share a line
+     */
+    public static int direction(int from, int to) {
+        return DIRECTION_BETWEEN[from * Board.SQUARES + to];
+    }
+
+    /**
+     * Returns the number of steps between two squares on the same line, that is the larger of their row and
+     * column distances.
+     *
+     * @param from the first square
+     * @param to the second square
+     * @return the distance in king steps
+     */
+    public static int distance(int from, int to) {
+        return Math.max(Math.abs(Board.rowOf(from) - Board.rowOf(to)), Math.abs(Board.colOf(from) - Board.colOf(to)));
+    }
+
+    /**
+     * Builds the attack table of a leaper from its jump offsets, leaving out jumps that leave the board.
+     *
+     * @param offsetSets one or more arrays of {row, col} offsets
+     * @return the attack table, with one bitboard per square
+     */
+    private static long[] leaperTable(int[][]... offsetSets) {
+        long[] table = new long[Board.SQUARES * Bitboard.WORDS];
+        for (int square = 0; square < Board.SQUARES; square++) {
+            int row = Board.rowOf(square);
+            int col = Board.colOf(square);
+            for (int[][] offsets : offsetSets) {
+                for (int[] offset : offsets) {
+                    int newRow = row + offset[0];
+                    int newCol = col + offset[1];
+                    if (newRow >= 0 && newRow < Board.SIZE && newCol >= 0 && newCol < Board.SIZE) {
+                        Bitboard.set(table, square * Bitboard.WORDS, Board.square(newRow, newCol));
+                    }
+                }
+            }
+        }
+        return table;
+    }
+}
@@ -0,0 +1,182 @@
+package XXLChess;
+
+/**
+ * Static helpers for 196-square bitboards.
+ *
+ * A bitboard is stored as {@link #WORDS} consecutive longs inside a larger long array, so that several
+ * sets (one per color, one per piece type, ...) can share a single flat array. Square {@code sq} lives in
+ * bit {@code sq & 63} of word {@code sq >>> 6}, where squares are numbered {@code row * Board.SIZE + col}.
+ */
+public final class Bitboard {
+    /** Number of longs needed to hold one bit per square. */
+    public static final int WORDS = (Board.SQUARES + 63) / 64;
+
+    private Bitboard() {
+    }
+
+    /**
+     * Adds a square to the set starting at the given offset.
+     *
+     * @param bits the backing array
+     * @param offset the index of the first word of the set
+     * @param square the square to add
+     */
+    public static void set(long[] bits, int offset, int square) {
+        bits[offset + (square >>> 6)] |= 1L << square;
+    }
+
+    /**
+     * Removes a square from the set starting at the given offset.
+     *
+     * @param bits the backing array
+     * @param offset the index of the first word of the set
+     * @param square the square to remove
+     */
+    public static void clear(long[] bits, int offset, int square) {
+        bits[offset + (square >>> 6)] &= ~(1L << square);
+    }
+
+    /**
+     * Checks whether a square is in the set starting at the given offset.
+     *
+     * @param bits the backing array
+     * @param offset the index of the first word of the set
+     * @param square the square to test
+     * @return true if the square is in the set, false otherwise
+     */
+    public static boolean test(long[] bits, int offset, int square) {
+        return (bits[offset + (square >>> 6)] & (1L << square)) != 0;
+    }
+
+    /**
+     * Counts the squares in the set starting at the given offset.
+     *
+     * @param bits the backing array
+     * @param offset the index of the first word of the set
+     * @return the number of squares in the set
+     */
+    public static int count(long[] bits, int offset) {
+        int count = 0;
+        for (int word = 0; word < WORDS; word++) {
+            count += Long.bitCount(bits[offset + word]);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the squares that are in both sets.
+     *
+     * @param a the first backing array
+     * @param aOffset the index of the first word of the first set
+     * @param b the second backing array
+     * @param bOffset the index of the first word of the second set
+     * @return the number of squares in the intersection
+     */
+    public static int countAnd(long[] a, int aOffset, long[] b, int bOffset) {
+        int count = 0;
+        for (int word = 0; word < WORDS; word++) {
+            count += Long.bitCount(a[aOffset + word] & b[bOffset + word]);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the lowest square in the set that is greater than or equal to {@code from}. Because it reads the
+     * set afresh on every call, a loop built on it stays valid while the set is being modified.
+     *
+     * @param bits the backing array
+     * @param offset the index of the first word of the set
+     * @param from the first square to consider
+     * @return the next square in the set, or -1 if there is none
+     */
+    public static int next(long[] bits, int offset, int from) {
+        int word = from >>> 6;
+        if (word >= WORDS) {
+            return -1;
+        }
+        long current = bits[offset + word] & (-1L << from);
+        while (current == 0) {
+            if (++word == WORDS) {
+                return -1;
+            }
+            current = bits[offset + word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(current);
+    }
+
+    /**
+     * Returns the lowest square that is in both sets and greater than or equal to {@code from}.
+     *
+     * @param a the first backing array
+     * @param aOffset the index of the first word of the first set
+     * @param b the second backing array
+     * @param bOffset the index of the first word of the second set
+     * @param from the first square to consider
+     * @return the next square in the intersection, or -1 if there is none
+     */
+    public static int nextAnd(long[] a, int aOffset, long[] b, int bOffset, int from) {
+        int word = from >>> 6;
+        if (word >= WORDS) {
+            return -1;
+        }
+        long current = a[aOffset + word] & b[bOffset + word] & (-1L << from);
+        while (current == 0) {
+            if (++word == WORDS) {
+                return -1;
+            }
+            current = a[aOffset + word] & b[bOffset + word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(current);
+    }
+
+    /**
+     * Returns the lowest square that is in the first set but not in the second and greater than or equal to
+     * {@code from}.
+     *
+     * @param a the first backing array
+     * @param aOffset the index of the first word of the first set
+     * @param b the second backing array
+     * @param bOffset the index of the first word of the set to exclude
+     * @param from the first square to consider
+     * @return the next square in the difference, or -1 if there is none
+     */
+    public static int nextAndNot(long[] a, int aOffset, long[] b, int bOffset, int from) {
+        int word = from >>> 6;
+        if (word >= WORDS) {
+            return -1;
+        }
+        long current = a[aOffset + word] & ~b[bOffset + word] & (-1L << from);
+        while (current == 0) {
+            if (++word == WORDS) {
+                return -1;
+            }
+            current = a[aOffset + word] & ~b[bOffset + word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(current);
+    }
+
+    /**
+     * Returns the highest square that is in both sets and less than or equal to {@code from}.
+     *
+     * @param a the first backing array
+     * @param aOffset the index of the first word of the first set
+     * @param b the second backing array
+     * @param bOffset the index of the first word of the second set
+     * @param from the last square to consider
+     * @return the previous square in the intersection, or -1 if there is none
+     */
+    public static int previousAnd(long[] a, int aOffset, long[] b, int bOffset, int from) {
+        if (from < 0) {
+            return -1;
+        }
+        int word = from >>> 6;
+        long current = a[aOffset + word] & b[bOffset + word] & (-1L >>> (63 - (from & 63)));
+        while (current == 0) {
+            if (--word < 0) {
+                return -1;
+            }
+            current = a[aOffset + word] & b[bOffset + word];
+        }
+        return (word << 6) + 63 - Long.numberOfLeadingZeros(current);
+    }
+}
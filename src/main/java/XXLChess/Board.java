@@ -4,30 +4,211 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Board {
-    // Board variables
-    private final Piece[][] board;
     public static final int SIZE = 14;
+    public static final int SQUARES = SIZE * SIZE;
+
+    // Color indices used by the occupancy sets
+    public static final int WHITE = 0;
+    public static final int BLACK = 1;
+
+    // Maximum number of moves that can be made with makeMove before they are unmade
+    public static final int MAX_PLY = 256;
+
+    // Most pieces that can attack one square at once: one per ray and per knight, camel and king step
+    public static final int MAX_ATTACKERS = 32;
+
+    // Piece types, as bit masks, that attack along each kind of line or leap
+    private static final int ORTHOGONAL_SLIDERS = 1 << Piece.ROOK | 1 << Piece.QUEEN | 1 << Piece.AMAZON | 1 << Piece.CHANCELLOR;
+    private static final int DIAGONAL_SLIDERS = 1 << Piece.BISHOP | 1 << Piece.QUEEN | 1 << Piece.AMAZON | 1 << Piece.ARCHBISHOP;
+    private static final int KNIGHT_LEAPERS = 1 << Piece.KNIGHT | 1 << Piece.GUARD | 1 << Piece.AMAZON | 1 << Piece.ARCHBISHOP | 1 << Piece.CHANCELLOR;
+    private static final int CAMEL_LEAPERS = 1 << Piece.CAMEL;
+    private static final int KING_STEPPERS = 1 << Piece.KING | 1 << Piece.GUARD;
+
+    // The value of each piece type, as returned by getPieceValue, for code that only has the type code
+    private static final double[] PIECE_VALUES = new double[Piece.TYPE_COUNT];
+
+    static {
+        for (int type = 0; type < Piece.TYPE_COUNT; type++) {
+            PIECE_VALUES[type] = Piece.definition(type, true).getPieceValue();
+        }
+    }
+
+    // Board variables: a piece view indexed by square plus the bitboard core the engine works on
+    private final Piece[] squares;
+    private final int[] pieceTypes;
+    private final long[] colorBits;
+    private final long[] typeBits;
+    private final long[] occupiedBits;
+
+    // Per-color piece lists (squares indexed by color * SQUARES + index) and the cached king squares
+    private final int[] pieceSquares;
+    private final int[] pieceCounts;
+    private final int[] pieceIndex;
+    private final int[] kingSquares;
+
+    // Attack maps: the squares each piece attacks (indexed by its square), the color those attacks were
+    // counted for, and per color (color * SQUARES + square) how many pieces attack each square
+    private final long[] attackBits;
+    private final int[] attackColors;
+    private final int[] attackCounts;
+
+    // Running evaluation per color in centipawns (see Evaluation): the material, and the piece-square bonuses
+    private final int[] materialScores = new int[2];
+    private final int[] placementScores = new int[2];
+
+    // Zobrist hash of the position and the side it belongs to, and the hash of the pawns alone
+    private long zobristKey;
+    private long pawnKey;
+    private boolean whiteToMove = true;
+
+    // Undo stack for makeMove/unmakeMove, preallocated so that searching allocates nothing
+    private final int[] undoSquares;
+    private final Piece[] undoMoved;
+    private final Piece[] undoCaptured;
+    private final boolean[] undoHasMoved;
+    private final long[] undoKeys;
+    private final Queen[] promotionQueens;
+    private int ply;
+
+    // Scratch state for generateLegalMoves and the mate tests built on it, which never run recursively on
+    // the same board: the checkers, the squares that block or capture a single check, the squares behind
+    // the king on a checking slider's line, and each pinned piece with the line it may move along
+    private final MoveList legalMoves = new MoveList();
+    private final int[] legalCheckers = new int[MAX_ATTACKERS];
+    private final long[] evasionMask = new long[Bitboard.WORDS];
+    private final long[] kingXrays = new long[Bitboard.WORDS];
+    private final int[] pinnedSquares = new int[AttackTables.DIRECTION_COUNT];
+    private final long[] pinMasks = new long[AttackTables.DIRECTION_COUNT * Bitboard.WORDS];
+
+    // Scratch state for staticExchange: the material balance after each capture of the sequence, and the
+    // pieces that have already captured and so no longer block the pieces behind them
+    private final double[] exchangeGains = new double[SQUARES + 1];
+    private final long[] exchanged = new long[Bitboard.WORDS];
 
     /**
      * Constructs a new Board object with an empty grid of size SIZE by SIZE.
      */
     public Board() {
-        board = new Piece[SIZE][SIZE];
+        squares = new Piece[SQUARES];
+        pieceTypes = new int[SQUARES];
+        Arrays.fill(pieceTypes, -1);
+        colorBits = new long[2 * Bitboard.WORDS];
+        typeBits = new long[Piece.TYPE_COUNT * Bitboard.WORDS];
+        occupiedBits = new long[Bitboard.WORDS];
+        pieceSquares = new int[2 * SQUARES];
+        pieceCounts = new int[2];
+        pieceIndex = new int[SQUARES];
+        kingSquares = new int[]{-1, -1};
+        attackBits = new long[SQUARES * Bitboard.WORDS];
+        attackColors = new int[SQUARES];
+        attackCounts = new int[2 * SQUARES];
+        undoSquares = new int[MAX_PLY];
+        undoMoved = new Piece[MAX_PLY];
+        undoCaptured = new Piece[MAX_PLY];
+        undoHasMoved = new boolean[MAX_PLY];
+        undoKeys = new long[MAX_PLY];
+        promotionQueens = new Queen[2 * MAX_PLY];
+    }
+
+    /**
+     * Constructs a copy of another board's position, with new pieces in the same state and the same side to
+     * move. The copy starts with an empty undo stack and shares nothing mutable with the original, so it can
+     * be searched on another thread.
+     *
+     * @param other the board to copy
+     */
+    public Board(Board other) {
+        this();
+        copyPosition(other);
+    }
+
+    /**
+     * Replaces this board's position with a copy of another board's, as the copy constructor does, so that a
+     * board can be set up for a new position without allocating its tables again. The undo stack is emptied.
+     *
+     * @param other the board to copy, which must be a different board
+     */
+    public void copyPosition(Board other) {
+        clearBoard();
+        ply = 0;
+        // Copy in piece list order so that the copy generates its moves in the same order
+        for (int i = 0; i < other.getPieceCount(true); i++) {
+            copyPiece(other, other.getPieceSquare(true, i));
+        }
+        for (int i = 0; i < other.getPieceCount(false); i++) {
+            copyPiece(other, other.getPieceSquare(false, i));
+        }
+        setWhiteToMove(other.whiteToMove);
+    }
+
+    /**
+     * Places a copy of another board's piece on the same square of this board. The copy's coordinates are
+     * taken from the square, since a piece's own row and column are only updated by {@link #movePiece}, not
+     * by the moves a search makes with {@link #makeMove(int)}.
+     *
+     * @param other the board to copy from
+     * @param square the occupied square to copy
+     */
+    private void copyPiece(Board other, int square) {
+        Piece piece = other.squares[square];
+        Piece copy = Piece.create(piece.getType(), rowOf(square), colOf(square), piece.isWhite);
+        copy.setHasMoved(piece.hasMoved());
+        putPiece(square, copy);
+    }
+
+    /**
+     * Returns the square index of the given row and column.
+     *
+     * @param row the row of the square (0-indexed)
+     * @param col the column of the square (0-indexed)
+     * @return the square index, {@code row * SIZE + col}
+     */
+    public static int square(int row, int col) {
+        return row * SIZE + col;
+    }
+
+    /**
+     * Returns the row of the given square index.
+     *
+     * @param square the square index
+     * @return the row of the square
+     */
+    public static int rowOf(int square) {
+        return square / SIZE;
+    }
+
+    /**
+     * Returns the column of the given square index.
+     *
+     * @param square the square index
+     * @return the column of the square
+     */
+    public static int colOf(int square) {
+        return square % SIZE;
+    }
+
+    /**
+     * Returns the color index of the given color.
+     *
+     * @param isWhite true for white, false for black
+     * @return {@link #WHITE} or {@link #BLACK}
+     */
+    public static int colorIndex(boolean isWhite) {
+        return isWhite ? WHITE : BLACK;
     }
 
     /**
      * Clears the board by setting all pieces to null.
      */
     public void clearBoard() {
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                setPiece(row, col, null);
-            }
+        for (int square = Bitboard.next(occupiedBits, 0, 0); square >= 0; square = Bitboard.next(occupiedBits, 0, square + 1)) {
+            setPiece(rowOf(square), colOf(square), null);
         }
-    }    
+    }
 
     /**
      * Returns the piece at the specified row and column.
@@ -40,7 +221,7 @@ public class Board {
         if (row < 0 || row >= SIZE || col < 0 || col >= SIZE) {
             return null;
         }
-        return board[row][col];
+        return squares[row * SIZE + col];
     }
 
     /**
@@ -51,7 +232,465 @@ public class Board {
      * @param piece the piece to set on the board
      */
     public void setPiece(int row, int col, Piece piece) {
-        board[row][col] = piece;
+        int square = row * SIZE + col;
+        if (squares[square] != null) {
+            removePiece(square);
+        }
+        if (piece != null) {
+            putPiece(square, piece);
+        }
+    }
+
+    /**
+     * Returns the Zobrist hash of the current position, maintained incrementally by {@link #setPiece},
+     * {@link #movePiece} and {@link #makeMove}. It covers the pieces, the side to move and which kings and
+     * rooks have not moved yet. Changing a piece's moved flag directly while it is on the board is not
+     * tracked; place the piece again with setPiece afterwards.
+     *
+     * @return the 64-bit hash of the position
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Computes the Zobrist hash of the current position from scratch.
+     *
+     * @return the 64-bit hash of the position, equal to {@link #getZobristKey()} when the board is consistent
+     */
+    public long computeZobristKey() {
+        long key = whiteToMove ? 0L : Zobrist.BLACK_TO_MOVE;
+        for (int square = Bitboard.next(occupiedBits, 0, 0); square >= 0; square = Bitboard.next(occupiedBits, 0, square + 1)) {
+            key ^= Zobrist.key(squares[square], square);
+        }
+        return key;
+    }
+
+    /**
+     * Returns the Zobrist hash of the pawns alone, maintained incrementally like {@link #getZobristKey()}.
+     * Positions with the same pawns on the same squares share it, whatever the other pieces and the side to
+     * move, so it can key results that only depend on the pawn structure.
+     *
+     * @return the 64-bit hash of the pawn placement, 0 when there are no pawns
+     */
+    public long getPawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * Computes the pawn hash from scratch.
+     *
+     * @return the 64-bit hash of the pawn placement, equal to {@link #getPawnKey()} when the board is consistent
+     */
+    public long computePawnKey() {
+        long key = 0L;
+        for (int color = WHITE; color <= BLACK; color++) {
+            boolean isWhite = color == WHITE;
+            for (int square = nextPieceSquare(Piece.PAWN, isWhite, 0); square >= 0; square = nextPieceSquare(Piece.PAWN, isWhite, square + 1)) {
+                key ^= Zobrist.pieceKey(Piece.PAWN, isWhite, square);
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Returns whether it is white's turn on this board. Every move made flips the turn.
+     *
+     * @return true if white is to move, false if black is
+     */
+    public boolean isWhiteToMove() {
+        return whiteToMove;
+    }
+
+    /**
+     * Sets which side is to move, updating the hash accordingly.
+     *
+     * @param whiteToMove true if white is to move, false if black is
+     */
+    public void setWhiteToMove(boolean whiteToMove) {
+        if (this.whiteToMove != whiteToMove) {
+            this.whiteToMove = whiteToMove;
+            zobristKey ^= Zobrist.BLACK_TO_MOVE;
+        }
+    }
+
+    /**
+     * Places a piece on an empty square, appending it to its color's piece list.
+     *
+     * @param square the square to place the piece on
+     * @param piece the piece to place
+     */
+    private void putPiece(int square, Piece piece) {
+        int color = colorIndex(piece.isWhite);
+        squares[square] = piece;
+        pieceTypes[square] = piece.getType();
+        Bitboard.set(colorBits, color * Bitboard.WORDS, square);
+        Bitboard.set(typeBits, piece.getType() * Bitboard.WORDS, square);
+        Bitboard.set(occupiedBits, 0, square);
+
+        int index = pieceCounts[color]++;
+        pieceSquares[color * SQUARES + index] = square;
+        pieceIndex[square] = index;
+        if (piece.getType() == Piece.KING) {
+            kingSquares[color] = square;
+        }
+        zobristKey ^= Zobrist.key(piece, square);
+        if (piece.getType() == Piece.PAWN) {
+            pawnKey ^= Zobrist.pieceKey(Piece.PAWN, piece.isWhite, square);
+        }
+        materialScores[color] += Evaluation.material(piece.getType());
+        placementScores[color] += Evaluation.placement(piece.getType(), piece.isWhite, square);
+        updateAttacks(square);
+    }
+
+    /**
+     * Removes the piece on a square. The last entry of its color's piece list takes its place.
+     *
+     * @param square the occupied square to empty
+     * @return the index the piece had in its piece list, which {@link #restorePiece} needs to undo this
+     */
+    private int removePiece(int square) {
+        Piece piece = squares[square];
+        int color = colorIndex(piece.isWhite);
+        zobristKey ^= Zobrist.key(piece, square);
+        if (piece.getType() == Piece.PAWN) {
+            pawnKey ^= Zobrist.pieceKey(Piece.PAWN, piece.isWhite, square);
+        }
+        materialScores[color] -= Evaluation.material(piece.getType());
+        placementScores[color] -= Evaluation.placement(piece.getType(), piece.isWhite, square);
+        squares[square] = null;
+        pieceTypes[square] = -1;
+        Bitboard.clear(colorBits, color * Bitboard.WORDS, square);
+        Bitboard.clear(typeBits, piece.getType() * Bitboard.WORDS, square);
+        Bitboard.clear(occupiedBits, 0, square);
+
+        int index = pieceIndex[square];
+        int lastSquare = pieceSquares[color * SQUARES + --pieceCounts[color]];
+        pieceSquares[color * SQUARES + index] = lastSquare;
+        pieceIndex[lastSquare] = index;
+        if (kingSquares[color] == square) {
+            // Fall back to any other king of that color (only possible on hand-made boards)
+            kingSquares[color] = nextPieceSquare(Piece.KING, piece.isWhite, 0);
+        }
+        updateAttacks(square);
+        return index;
+    }
+
+    /**
+     * Puts back a piece removed by {@link #removePiece}, at the same position in its piece list, so that the
+     * list order after a make/unmake pair is exactly what it was before.
+     *
+     * @param square the empty square to place the piece on
+     * @param piece the piece to place
+     * @param index the piece list index returned when the piece was removed
+     */
+    private void restorePiece(int square, Piece piece, int index) {
+        putPiece(square, piece);
+        int base = colorIndex(piece.isWhite) * SQUARES;
+        int last = pieceIndex[square];
+        if (index != last) {
+            int displaced = pieceSquares[base + index];
+            pieceSquares[base + last] = displaced;
+            pieceIndex[displaced] = last;
+            pieceSquares[base + index] = square;
+            pieceIndex[square] = index;
+        }
+    }
+
+    /**
+     * Moves a piece to an empty square, keeping its place in the piece list, and marks it as moved.
+     *
+     * @param srcSquare the square the piece stands on
+     * @param destSquare the empty square to move it to
+     */
+    private void relocatePiece(int srcSquare, int destSquare) {
+        Piece piece = squares[srcSquare];
+        int color = colorIndex(piece.isWhite);
+        int typeOffset = piece.getType() * Bitboard.WORDS;
+        zobristKey ^= Zobrist.key(piece, srcSquare);
+        piece.setHasMoved(true);
+        zobristKey ^= Zobrist.key(piece, destSquare);
+        if (piece.getType() == Piece.PAWN) {
+            pawnKey ^= Zobrist.pieceKey(Piece.PAWN, piece.isWhite, srcSquare) ^ Zobrist.pieceKey(Piece.PAWN, piece.isWhite, destSquare);
+        }
+        placementScores[color] += Evaluation.placement(piece.getType(), piece.isWhite, destSquare) -
+                                  Evaluation.placement(piece.getType(), piece.isWhite, srcSquare);
+
+        squares[srcSquare] = null;
+        squares[destSquare] = piece;
+        pieceTypes[destSquare] = pieceTypes[srcSquare];
+        pieceTypes[srcSquare] = -1;
+        Bitboard.clear(colorBits, color * Bitboard.WORDS, srcSquare);
+        Bitboard.set(colorBits, color * Bitboard.WORDS, destSquare);
+        Bitboard.clear(typeBits, typeOffset, srcSquare);
+        Bitboard.set(typeBits, typeOffset, destSquare);
+        Bitboard.clear(occupiedBits, 0, srcSquare);
+        Bitboard.set(occupiedBits, 0, destSquare);
+
+        int index = pieceIndex[srcSquare];
+        pieceSquares[color * SQUARES + index] = destSquare;
+        pieceIndex[destSquare] = index;
+        if (kingSquares[color] == srcSquare) {
+            kingSquares[color] = destSquare;
+        }
+        updateAttacks(srcSquare);
+        updateAttacks(destSquare);
+    }
+
+    /**
+     * Brings the attack maps up to date after the piece on a square has been placed, removed or moved. Only
+     * the piece on the square itself and the sliders whose rays reach the square can have changed attacks:
+     * such a slider is the first piece met when looking from the square in the opposite direction.
+     *
+     * @param square the square whose occupancy changed
+     */
+    private void updateAttacks(int square) {
+        refreshAttacks(square);
+        for (int direction = 0; direction < AttackTables.DIRECTION_COUNT; direction++) {
+            int blocker = firstBlocker(square, direction);
+            int sliders = AttackTables.isDiagonal(direction) ? DIAGONAL_SLIDERS : ORTHOGONAL_SLIDERS;
+            if (blocker >= 0 && (sliders & 1 << pieceTypes[blocker]) != 0) {
+                refreshAttacks(blocker);
+            }
+        }
+    }
+
+    /**
+     * Replaces the attacks recorded for a square with those of the piece now standing on it, adjusting the
+     * attack counts of both the old and the new attacked squares.
+     *
+     * @param square the square of the piece to recompute
+     */
+    private void refreshAttacks(int square) {
+        int offset = square * Bitboard.WORDS;
+        int base = attackColors[square] * SQUARES;
+        for (int target = Bitboard.next(attackBits, offset, 0); target >= 0; target = Bitboard.next(attackBits, offset, target + 1)) {
+            attackCounts[base + target]--;
+        }
+        Arrays.fill(attackBits, offset, offset + Bitboard.WORDS, 0L);
+
+        int type = pieceTypes[square];
+        if (type < 0) {
+            return;
+        }
+        int typeMask = 1 << type;
+        if ((typeMask & KNIGHT_LEAPERS) != 0) {
+            addTableAttacks(AttackTables.KNIGHT, square);
+        }
+        if ((typeMask & CAMEL_LEAPERS) != 0) {
+            addTableAttacks(AttackTables.CAMEL, square);
+        }
+        if ((typeMask & KING_STEPPERS) != 0) {
+            addTableAttacks(AttackTables.KING, square);
+        }
+        if (type == Piece.PAWN) {
+            // Pawns capture diagonally forwards only, as they are generated (see findAttackers)
+            int pawnRow = rowOf(square) + (hasPieceOfColor(square, true) ? -1 : 1);
+            for (int pawnCol = colOf(square) - 1; pawnCol <= colOf(square) + 1; pawnCol += 2) {
+                if (isInsideBoard(pawnRow, pawnCol)) {
+                    Bitboard.set(attackBits, offset, square(pawnRow, pawnCol));
+                }
+            }
+        }
+        if ((typeMask & ORTHOGONAL_SLIDERS) != 0) {
+            for (int direction : AttackTables.ROOK_DIRECTIONS) {
+                addRayAttacks(square, direction);
+            }
+        }
+        if ((typeMask & DIAGONAL_SLIDERS) != 0) {
+            for (int direction : AttackTables.BISHOP_DIRECTIONS) {
+                addRayAttacks(square, direction);
+            }
+        }
+
+        attackColors[square] = squares[square].isWhite ? WHITE : BLACK;
+        base = attackColors[square] * SQUARES;
+        for (int target = Bitboard.next(attackBits, offset, 0); target >= 0; target = Bitboard.next(attackBits, offset, target + 1)) {
+            attackCounts[base + target]++;
+        }
+    }
+
+    /**
+     * Adds the squares of a leaper's attack table to the attacks recorded for a square.
+     *
+     * @param table the attack table
+     * @param square the square of the piece
+     */
+    private void addTableAttacks(long[] table, int square) {
+        int offset = square * Bitboard.WORDS;
+        for (int word = 0; word < Bitboard.WORDS; word++) {
+            attackBits[offset + word] |= table[offset + word];
+        }
+    }
+
+    /**
+     * Adds the squares of a ray up to and including its first blocker to the attacks recorded for a square.
+     * They are the ray from the square minus the ray that continues beyond the blocker.
+     *
+     * @param square the square of the sliding piece
+     * @param direction the direction of the ray
+     */
+    private void addRayAttacks(int square, int direction) {
+        int offset = square * Bitboard.WORDS;
+        int rayOffset = AttackTables.rayOffset(square, direction);
+        int blocker = firstBlocker(square, direction);
+        int beyondOffset = blocker >= 0 ? AttackTables.rayOffset(blocker, direction) : -1;
+        for (int word = 0; word < Bitboard.WORDS; word++) {
+            long beyond = beyondOffset >= 0 ? AttackTables.RAYS[beyondOffset + word] : 0L;
+            attackBits[offset + word] |= AttackTables.RAYS[rayOffset + word] ^ beyond;
+        }
+    }
+
+    /**
+     * Returns the number of pieces of a color attacking a square, read from the incrementally maintained
+     * attack maps. Squares holding a piece of that color count as attacked when another piece defends them.
+     *
+     * @param square the square index
+     * @param byWhite the color of the attacking pieces
+     * @return the number of attackers
+     */
+    public int getAttackCount(int square, boolean byWhite) {
+        return attackCounts[colorIndex(byWhite) * SQUARES + square];
+    }
+
+    /**
+     * Checks whether any piece of a color attacks a square.
+     *
+     * @param square the square index
+     * @param byWhite the color of the attacking pieces
+     * @return true if the square is attacked, false otherwise
+     */
+    public boolean isAttacked(int square, boolean byWhite) {
+        return attackCounts[colorIndex(byWhite) * SQUARES + square] > 0;
+    }
+
+    /**
+     * Checks whether the piece on a square attacks another square.
+     *
+     * @param from the square of the attacking piece
+     * @param to the square that may be attacked
+     * @return true if a piece stands on {@code from} and attacks {@code to}, false otherwise
+     */
+    public boolean attacksSquare(int from, int to) {
+        return Bitboard.test(attackBits, from * Bitboard.WORDS, to);
+    }
+
+    /**
+     * Returns the type of the piece on a square.
+     *
+     * @param square the square index
+     * @return the piece type code, or -1 if the square is empty
+     */
+    public int getPieceType(int square) {
+        return pieceTypes[square];
+    }
+
+    /**
+     * Checks whether a square holds a piece of the given color.
+     *
+     * @param square the square index
+     * @param isWhite the color to look for
+     * @return true if the square holds a piece of that color, false otherwise
+     */
+    public boolean hasPieceOfColor(int square, boolean isWhite) {
+        return Bitboard.test(colorBits, colorIndex(isWhite) * Bitboard.WORDS, square);
+    }
+
+    /**
+     * Returns the number of pieces of the given color on the board.
+     *
+     * @param isWhite the color of the pieces
+     * @return the length of that color's piece list
+     */
+    public int getPieceCount(boolean isWhite) {
+        return pieceCounts[colorIndex(isWhite)];
+    }
+
+    /**
+     * Returns the square of one entry of a color's piece list. Together with {@link #getPieceCount} this
+     * walks the pieces of one side without visiting empty squares; the order is stable across a
+     * makeMove/unmakeMove pair.
+     *
+     * @param isWhite the color of the pieces
+     * @param index the list index, from 0 to {@code getPieceCount(isWhite) - 1}
+     * @return the square of the piece at that index
+     */
+    public int getPieceSquare(boolean isWhite, int index) {
+        return pieceSquares[colorIndex(isWhite) * SQUARES + index];
+    }
+
+    /**
+     * Returns the square of the king of the given color.
+     *
+     * @param isWhite the color of the king
+     * @return the king's square, or -1 if that color has no king on the board
+     */
+    public int getKingSquare(boolean isWhite) {
+        return kingSquares[colorIndex(isWhite)];
+    }
+
+    /**
+     * Returns the lowest occupied square of the given color at or after {@code from}, so that callers can
+     * walk one side's pieces without visiting empty squares.
+     *
+     * @param isWhite the color of the pieces to walk
+     * @param from the first square to consider
+     * @return the next square holding a piece of that color, or -1 if there is none
+     */
+    public int nextPieceSquare(boolean isWhite, int from) {
+        return Bitboard.next(colorBits, colorIndex(isWhite) * Bitboard.WORDS, from);
+    }
+
+    /**
+     * Returns the lowest square at or after {@code from} holding a piece of the given type and color.
+     *
+     * @param type the piece type code
+     * @param isWhite the color of the piece
+     * @param from the first square to consider
+     * @return the next matching square, or -1 if there is none
+     */
+    public int nextPieceSquare(int type, boolean isWhite, int from) {
+        return Bitboard.nextAnd(typeBits, type * Bitboard.WORDS, colorBits, colorIndex(isWhite) * Bitboard.WORDS, from);
+    }
+
+    /**
+     * Returns the lowest square at or after {@code from} that a piece on {@code square} attacks according to
+     * an attack table and that is not occupied by a piece of the given color.
+     *
+     * @param table the attack table, one bitboard per square (see {@link AttackTables})
+     * @param square the square of the attacking piece
+     * @param isWhite the color of the attacking piece, whose own pieces are skipped
+     * @param from the first square to consider
+     * @return the next reachable square, or -1 if there is none
+     */
+    public int nextTarget(long[] table, int square, boolean isWhite, int from) {
+        return Bitboard.nextAndNot(table, square * Bitboard.WORDS, colorBits, colorIndex(isWhite) * Bitboard.WORDS, from);
+    }
+
+    /**
+     * Returns the nearest occupied square on a ray, found with a single bitboard scan.
+     *
+     * @param square the square the ray starts from
+     * @param direction the direction of the ray (see {@link AttackTables})
+     * @return the first square in that direction holding a piece, or -1 if the ray is empty
+     */
+    public int firstBlocker(int square, int direction) {
+        int offset = AttackTables.rayOffset(square, direction);
+        if (AttackTables.isIncreasing(direction)) {
+            return Bitboard.nextAnd(AttackTables.RAYS, offset, occupiedBits, 0, square + 1);
+        }
+        return Bitboard.previousAnd(AttackTables.RAYS, offset, occupiedBits, 0, square - 1);
+    }
+
+    /**
+     * Counts the pieces of the given type and color.
+     *
+     * @param type the piece type code
+     * @param isWhite the color of the pieces
+     * @return the number of such pieces on the board
+     */
+    public int countPieces(int type, boolean isWhite) {
+        return Bitboard.countAnd(typeBits, type * Bitboard.WORDS, colorBits, colorIndex(isWhite) * Bitboard.WORDS);
     }
 
     /**
@@ -139,32 +778,223 @@ public class Board {
      * @param destRow the row index of the destination square
      * @param destCol the column index of the destination square
      * @return the captured piece (if any)
+     * @throws IllegalArgumentException if the source square is empty or the same as the destination square
      */
     public Piece movePiece(int srcRow, int srcCol, int destRow, int destCol) {
-        Piece piece = getPiece(srcRow, srcCol);
-    
-        // Remove the piece from the source square
-        setPiece(srcRow, srcCol, null);
-    
-        // Store the captured piece if any
-        Piece capturedPiece = getPiece(destRow, destCol);
-    
-        // Check for pawn promotion
-        if (piece instanceof Pawn && (destRow == 0 || destRow == Board.SIZE / 2)) {
+        int srcSquare = square(srcRow, srcCol);
+        int destSquare = square(destRow, destCol);
+        Piece piece = squares[srcSquare];
+        // Reject non-moves before anything on the board is changed
+        if (piece == null || srcSquare == destSquare) {
+            throw new IllegalArgumentException("Not a move: " + srcRow + "," + srcCol + "-" + destRow + "," + destCol);
+        }
+
+        // Remove the captured piece if any
+        Piece capturedPiece = squares[destSquare];
+        if (capturedPiece != null) {
+            removePiece(destSquare);
+        }
+
+        if (isPromotion(piece, destRow)) {
+            // Replace the pawn with a new queen on the destination square
+            removePiece(srcSquare);
             piece = new Queen(destRow, destCol, piece.isWhite);
+            piece.setHasMoved(true);
+            putPiece(destSquare, piece);
+        } else {
+            // Move the piece and set the hasMoved property
+            relocatePiece(srcSquare, destSquare);
         }
-    
-        // Place the piece on the destination square
-        setPiece(destRow, destCol, piece);
-    
-        // Update the piece's internal position and set the hasMoved property
+
+        // Update the piece's internal position
         piece.updatePiecePosition(destRow, destCol);
-        piece.setHasMoved(true);
+
+        // Pass the turn to the other side
+        setWhiteToMove(!whiteToMove);
     
         // Return the captured piece (if any)
         return capturedPiece;
     }    
 
+    /**
+     * Makes a move that can later be taken back with {@link #unmakeMove()}. Unlike {@link #movePiece}, the
+     * moved piece's previous state is recorded on the undo stack, and a promoting pawn is replaced by a
+     * preallocated queen so that making and unmaking moves during a search never allocates. The pieces' own
+     * row and column are left alone: everything on this path takes positions from the board.
+     *
+     * @param srcRow the row index of the source square
+     * @param srcCol the column index of the source square
+     * @param destRow the row index of the destination square
+     * @param destCol the column index of the destination square
+     * @return the captured piece (if any)
+     * @throws IllegalStateException if {@link #MAX_PLY} moves are already waiting to be unmade
+     */
+    public Piece makeMove(int srcRow, int srcCol, int destRow, int destCol) {
+        return makeMoveBetween(square(srcRow, srcCol), square(destRow, destCol));
+    }
+
+    /**
+     * Makes a packed move (see {@link Move}) that can later be taken back with {@link #unmakeMove()}.
+     *
+     * @param move the packed move
+     * @return the captured piece (if any)
+     * @throws IllegalStateException if {@link #MAX_PLY} moves are already waiting to be unmade
+     */
+    public Piece makeMove(int move) {
+        return makeMoveBetween(Move.from(move), Move.to(move));
+    }
+
+    /**
+     * Makes a move between two squares, recording it on the undo stack.
+     *
+     * @param srcSquare the source square
+     * @param destSquare the destination square
+     * @return the captured piece (if any)
+     */
+    private Piece makeMoveBetween(int srcSquare, int destSquare) {
+        if (ply == MAX_PLY) {
+            throw new IllegalStateException("Too many moves made without unmaking them: " + MAX_PLY);
+        }
+        Piece piece = squares[srcSquare];
+        Piece capturedPiece = squares[destSquare];
+
+        // Record everything needed to restore the position
+        undoMoved[ply] = piece;
+        undoCaptured[ply] = capturedPiece;
+        undoHasMoved[ply] = piece.hasMoved();
+        undoKeys[ply] = zobristKey;
+
+        int capturedIndex = capturedPiece != null ? removePiece(destSquare) : 0;
+        int movedIndex = 0;
+        if (isPromotion(piece, rowOf(destSquare))) {
+            // Swap the promoting pawn for this ply's queen
+            movedIndex = removePiece(srcSquare);
+            piece = promotionQueen(ply, piece.isWhite);
+            piece.setHasMoved(true);
+            putPiece(destSquare, piece);
+        } else {
+            relocatePiece(srcSquare, destSquare);
+        }
+        setWhiteToMove(!whiteToMove);
+        undoSquares[ply] = srcSquare | destSquare << 8 | movedIndex << 16 | capturedIndex << 24;
+
+        ply++;
+        return capturedPiece;
+    }
+
+    /**
+     * Passes the turn to the other side without moving a piece, as null-move pruning does to see whether a
+     * position is still good when the opponent gets two moves in a row. It must be taken back with
+     * {@link #unmakeNullMove()} before the move made before it is unmade.
+     *
+     * @throws IllegalStateException if {@link #MAX_PLY} moves are already waiting to be unmade
+     */
+    public void makeNullMove() {
+        if (ply == MAX_PLY) {
+            throw new IllegalStateException("Too many moves made without unmaking them: " + MAX_PLY);
+        }
+        undoKeys[ply] = zobristKey;
+        setWhiteToMove(!whiteToMove);
+        ply++;
+    }
+
+    /**
+     * Takes back a move made with {@link #makeNullMove()}.
+     *
+     * @throws IllegalStateException if there is no move to unmake
+     */
+    public void unmakeNullMove() {
+        if (ply == 0) {
+            throw new IllegalStateException("No move to unmake");
+        }
+        ply--;
+        whiteToMove = !whiteToMove;
+        zobristKey = undoKeys[ply];
+    }
+
+    /**
+     * Takes back the last move made with {@link #makeMove}, restoring the captured piece, the moved piece's
+     * position and moved flag, and the pawn of a promotion.
+     *
+     * @throws IllegalStateException if there is no move to unmake
+     */
+    public void unmakeMove() {
+        if (ply == 0) {
+            throw new IllegalStateException("No move to unmake");
+        }
+        ply--;
+        int undo = undoSquares[ply];
+        int srcSquare = undo & 0xFF;
+        int destSquare = (undo >>> 8) & 0xFF;
+        Piece piece = undoMoved[ply];
+        Piece capturedPiece = undoCaptured[ply];
+
+        // Move the piece back (taking the queen off again after a promotion), then the captured piece
+        if (squares[destSquare] != piece) {
+            removePiece(destSquare);
+            restorePiece(srcSquare, piece, (undo >>> 16) & 0xFF);
+        } else {
+            relocatePiece(destSquare, srcSquare);
+        }
+        if (capturedPiece != null) {
+            restorePiece(destSquare, capturedPiece, undo >>> 24);
+        }
+        piece.setHasMoved(undoHasMoved[ply]);
+        whiteToMove = !whiteToMove;
+        zobristKey = undoKeys[ply];
+
+        // Drop the references so the stack does not keep captured pieces alive
+        undoMoved[ply] = null;
+        undoCaptured[ply] = null;
+    }
+
+    /**
+     * Returns the number of moves made with {@link #makeMove} that have not been unmade yet.
+     *
+     * @return the current depth of the undo stack
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Determines whether moving the given piece to the given row promotes it.
+     *
+     * @param piece the piece being moved
+     * @param destRow the row the piece is moved to
+     * @return true if the piece is a pawn reaching a promotion row, false otherwise
+     */
+    private static boolean isPromotion(Piece piece, int destRow) {
+        return piece instanceof Pawn && isPromotionRow(destRow);
+    }
+
+    /**
+     * Determines whether a pawn moving to the given row is promoted.
+     *
+     * @param row the destination row
+     * @return true if pawns are promoted on that row, false otherwise
+     */
+    public static boolean isPromotionRow(int row) {
+        return row == 0 || row == Board.SIZE / 2;
+    }
+
+    /**
+     * Returns the queen reserved for promotions made at the given ply, creating it on first use.
+     *
+     * @param ply the depth of the undo stack the promotion is made at
+     * @param isWhite the color of the promoting pawn
+     * @return a queen that is not on the board
+     */
+    private Queen promotionQueen(int ply, boolean isWhite) {
+        int index = colorIndex(isWhite) * MAX_PLY + ply;
+        Queen queen = promotionQueens[index];
+        if (queen == null) {
+            queen = new Queen(-1, -1, isWhite);
+            promotionQueens[index] = queen;
+        }
+        return queen;
+    }
+
     /**
      * Determines whether a given row and column are within the bounds of the game board.
      *
@@ -189,7 +1019,7 @@ public class Board {
         if (piece == null) {
             return false;
         }
-        return piece.isMoveValid(destRow, destCol, this);
+        return piece.isMoveValid(srcRow, srcCol, destRow, destCol, this);
     }    
 
     /**
@@ -201,21 +1031,124 @@ public class Board {
      * @return true if the king is in check, false otherwise
      */
     public boolean isKingInCheck(int kingRow, int kingCol, boolean isWhite) {
-        // Iterate over all pieces on the board
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                Piece piece = getPiece(row, col);
-                // If the piece is not null and is of the opposite color of the king
-                if (piece != null && piece.isWhite != isWhite) {
-                    // Check if the piece is capable of capturing the king
-                    if (piece.isMoveValid(kingRow, kingCol, this)) {
-                        return true;
-                    }
+        // A single lookup in the opposing side's attack map
+        return isInsideBoard(kingRow, kingCol) && isAttacked(square(kingRow, kingCol), !isWhite);
+    }
+
+    /**
+     * Determines if the king of the given color is in check.
+     *
+     * @param isWhite the color of the king
+     * @return true if the color has a king and it is attacked, false otherwise
+     */
+    public boolean isInCheck(boolean isWhite) {
+        int kingSquare = getKingSquare(isWhite);
+        return kingSquare >= 0 && isAttacked(kingSquare, !isWhite);
+    }
+
+    /**
+     * Finds the pieces giving check to the king of the given color.
+     *
+     * @param isWhite the color of the king
+     * @param checkers an array of at least {@link #MAX_ATTACKERS} entries that receives the squares of the
+     *                 checking pieces
+     * @return the number of checking pieces, 0 if the king is not in check or not on the board
+     */
+    public int findCheckers(boolean isWhite, int[] checkers) {
+        int kingSquare = getKingSquare(isWhite);
+        return kingSquare < 0 ? 0 : findAttackers(kingSquare, isWhite, checkers);
+    }
+
+    /**
+     * Finds the opposing pieces that could capture a piece of the given color on a square. Rather than asking
+     * every opposing piece whether it can reach the square, this looks outwards from the square as a
+     * "super piece": the first piece on each ray, and the pieces a knight, camel or king step away, are
+     * matched against the piece types that move that way.
+     *
+     * @param square the square being attacked
+     * @param isWhite the color of the piece on the square, whose opponents are the attackers
+     * @param attackers an array of at least {@link #MAX_ATTACKERS} entries that receives the attacking
+     *                  squares, or null to stop at the first attacker
+     * @return the number of attackers found, at most 1 when {@code attackers} is null
+     */
+    public int findAttackers(int square, boolean isWhite, int[] attackers) {
+        int count = 0;
+
+        // Sliding pieces: the nearest piece on each ray
+        for (int direction = 0; direction < AttackTables.DIRECTION_COUNT; direction++) {
+            int blocker = firstBlocker(square, direction);
+            int sliders = AttackTables.isDiagonal(direction) ? DIAGONAL_SLIDERS : ORTHOGONAL_SLIDERS;
+            if (blocker >= 0 && isAttacker(blocker, isWhite, sliders)) {
+                if (attackers == null) {
+                    return 1;
+                }
+                attackers[count++] = blocker;
+            }
+        }
+
+        // Leaping pieces: look up the squares they would have to stand on
+        count = addLeapAttackers(AttackTables.KNIGHT, square, isWhite, KNIGHT_LEAPERS, attackers, count);
+        if (count > 0 && attackers == null) {
+            return count;
+        }
+        count = addLeapAttackers(AttackTables.CAMEL, square, isWhite, CAMEL_LEAPERS, attackers, count);
+        if (count > 0 && attackers == null) {
+            return count;
+        }
+        count = addLeapAttackers(AttackTables.KING, square, isWhite, KING_STEPPERS, attackers, count);
+        if (count > 0 && attackers == null) {
+            return count;
+        }
+
+        // Pawns capture diagonally forwards only, as they are generated, so an attacking pawn stands on the row
+        // before the square in its direction of travel
+        int pawnRow = rowOf(square) + (isWhite ? -1 : 1);
+        for (int pawnCol = colOf(square) - 1; pawnCol <= colOf(square) + 1; pawnCol += 2) {
+            if (isInsideBoard(pawnRow, pawnCol) && isAttacker(square(pawnRow, pawnCol), isWhite, 1 << Piece.PAWN)) {
+                if (attackers == null) {
+                    return 1;
+                }
+                attackers[count++] = square(pawnRow, pawnCol);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Adds the opposing pieces that attack a square with a leap from an attack table.
+     *
+     * @param table the attack table of the leap, which is symmetric
+     * @param square the square being attacked
+     * @param isWhite the color of the piece on the square
+     * @param typeMask the piece types, as bit masks, that leap that way
+     * @param attackers the array receiving the attacking squares, or null to stop at the first one
+     * @param count the number of attackers found so far
+     * @return the new number of attackers
+     */
+    private int addLeapAttackers(long[] table, int square, boolean isWhite, int typeMask, int[] attackers, int count) {
+        int offset = colorIndex(!isWhite) * Bitboard.WORDS;
+        for (int from = Bitboard.nextAnd(table, square * Bitboard.WORDS, colorBits, offset, 0); from >= 0;
+             from = Bitboard.nextAnd(table, square * Bitboard.WORDS, colorBits, offset, from + 1)) {
+            if ((typeMask & 1 << pieceTypes[from]) != 0) {
+                if (attackers == null) {
+                    return count + 1;
                 }
+                attackers[count++] = from;
             }
         }
-        // If no piece is capable of capturing the king, return false
-        return false;
+        return count;
+    }
+
+    /**
+     * Checks whether a square holds an opposing piece of one of the given types.
+     *
+     * @param square the square to look at
+     * @param isWhite the color of the attacked side
+     * @param typeMask the piece types, as bit masks, to accept
+     * @return true if the square holds such a piece, false otherwise
+     */
+    private boolean isAttacker(int square, boolean isWhite, int typeMask) {
+        return hasPieceOfColor(square, !isWhite) && (typeMask & 1 << pieceTypes[square]) != 0;
     }
 
     /**
@@ -225,115 +1158,425 @@ public class Board {
      * @return true if the player is in checkmate, false otherwise
      */
     public boolean isCheckmate(boolean isWhite) {
-        // Find the king's position
-        int kingRow = -1;
-        int kingCol = -1;
-        // Iterate over all pieces on the board
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                // Check if there is a piece at this position and if it matches the king's color
-                Piece piece = getPiece(row, col);
-                if (piece != null && piece.isWhite == isWhite && piece instanceof King) {
-                    // If the piece is a king of the correct color, record its position and exit the loop
-                    kingRow = row;
-                    kingCol = col;
-                    break;
+        // A side without a king cannot be checkmated
+        int kingSquare = getKingSquare(isWhite);
+        if (kingSquare < 0) {
+            return false;
+        }
+
+        // Checkmate is being in check with no legal move
+        return isAttacked(kingSquare, !isWhite) && !hasLegalMove(isWhite);
+    }
+
+    /**
+     * Checks if the player of the given color is in stalemate.
+     *
+     * @param isWhite the color of the player to check
+     * @return true if the player is not in check but has no legal move, false otherwise
+     */
+    public boolean isStalemate(boolean isWhite) {
+        int kingSquare = getKingSquare(isWhite);
+        if (kingSquare < 0) {
+            return false;
+        }
+        return !isAttacked(kingSquare, !isWhite) && !hasLegalMove(isWhite);
+    }
+
+    /**
+     * Checks whether the player of the given color has at least one legal move.
+     *
+     * @param isWhite the color of the player
+     * @return true if a legal move exists, false otherwise
+     */
+    private boolean hasLegalMove(boolean isWhite) {
+        legalMoves.clear();
+        generateLegalMoves(isWhite, legalMoves);
+        return legalMoves.size() > 0;
+    }
+
+    /**
+     * Appends the legal moves for a given color to a move list: the moves of {@link #generateMoves} that do
+     * not leave the color's own king attacked. Checkers and pins are worked out once for the position, so no
+     * move has to be tried on the board:
+     * <ul>
+     *     <li>the king may go to any square the opponent does not attack, which includes squares behind it on
+     *     the line of a checking slider;</li>
+     *     <li>in double check only the king may move;</li>
+     *     <li>in single check other pieces must capture the checker or block its line;</li>
+     *     <li>a pinned piece may only move along the line between its king and the pinning slider.</li>
+     * </ul>
+     * A side without a king has no king to expose, so all of its moves are legal.
+     *
+     * @param isWhite a boolean indicating which color's moves to generate
+     * @param moves the list to append the moves to
+     */
+    public void generateLegalMoves(boolean isWhite, MoveList moves) {
+        generateLegalMoves(isWhite, moves, false);
+    }
+
+    /**
+     * Appends the legal captures and promotions for a given color to a move list: the moves of
+     * {@link #generateLegalMoves} that take a piece or promote a pawn. Quiescence search
+     * uses this to follow only the moves that change the material balance.
+     *
+     * @param isWhite a boolean indicating which color's captures to generate
+     * @param moves the list to append the moves to
+     */
+    public void generateLegalCaptures(boolean isWhite, MoveList moves) {
+        generateLegalMoves(isWhite, moves, true);
+    }
+
+    /**
+     * Appends the legal moves, or only the legal captures and promotions, for a given color to a move list.
+     *
+     * @param isWhite a boolean indicating which color's moves to generate
+     * @param moves the list to append the moves to
+     * @param capturesOnly true to leave out the moves that neither capture nor promote
+     */
+    private void generateLegalMoves(boolean isWhite, MoveList moves, boolean capturesOnly) {
+        int kingSquare = getKingSquare(isWhite);
+        if (kingSquare < 0) {
+            int count = getPieceCount(isWhite);
+            for (int i = 0; i < count; i++) {
+                generatePieceMoves(getPieceSquare(isWhite, i), moves, capturesOnly);
+            }
+            return;
+        }
+
+        int checkCount = findAttackers(kingSquare, isWhite, legalCheckers);
+        Arrays.fill(kingXrays, 0L);
+        for (int i = 0; i < checkCount; i++) {
+            int checker = legalCheckers[i];
+            int direction = AttackTables.direction(checker, kingSquare);
+            int sliders = direction >= 0 && AttackTables.isDiagonal(direction) ? DIAGONAL_SLIDERS : ORTHOGONAL_SLIDERS;
+            if (direction >= 0 && (sliders & 1 << pieceTypes[checker]) != 0 && AttackTables.rayLength(kingSquare, direction) > 0) {
+                // Stepping back along the checking line does not escape the check
+                Bitboard.set(kingXrays, 0, AttackTables.raySquare(kingSquare, direction, 0));
+            }
+        }
+        if (checkCount == 1) {
+            int checker = legalCheckers[0];
+            int direction = AttackTables.direction(kingSquare, checker);
+            if (direction >= 0) {
+                setLine(evasionMask, 0, kingSquare, checker, direction);
+            } else {
+                Arrays.fill(evasionMask, 0L);
+                Bitboard.set(evasionMask, 0, checker);
+            }
+        }
+        int pinCount = findPins(kingSquare, isWhite);
+
+        int count = getPieceCount(isWhite);
+        for (int i = 0; i < count; i++) {
+            int square = getPieceSquare(isWhite, i);
+            if (square != kingSquare && checkCount > 1) {
+                continue;
+            }
+            int pin = -1;
+            for (int p = 0; p < pinCount; p++) {
+                if (pinnedSquares[p] == square) {
+                    pin = p;
+                }
+            }
+
+            // Generate the piece's moves, then keep the legal ones in place
+            int start = moves.size();
+            generatePieceMoves(square, moves, capturesOnly);
+            int kept = start;
+            for (int j = start; j < moves.size(); j++) {
+                int move = moves.get(j);
+                int to = Move.to(move);
+                boolean legal;
+                if (square == kingSquare) {
+                    legal = !isAttacked(to, !isWhite) && !Bitboard.test(kingXrays, 0, to);
+                } else {
+                    legal = (checkCount == 0 || Bitboard.test(evasionMask, 0, to)) &&
+                            (pin < 0 || Bitboard.test(pinMasks, pin * Bitboard.WORDS, to));
+                }
+                if (legal) {
+                    moves.set(kept++, move);
+                }
+            }
+            moves.truncate(kept);
+        }
+    }
+
+    /**
+     * Appends the moves of the piece on a square, or only its captures and promotions. Every piece but the
+     * pawn captures exactly on the opposing pieces it attacks, so those captures are read from the attack
+     * map instead of generating the piece's quiet moves; a pawn's moves are generated and filtered, since it
+     * also promotes by moving straight ahead onto an empty square.
+     *
+     * @param square the square of the piece
+     * @param moves the list to append the moves to
+     * @param capturesOnly true to leave out the moves that neither capture nor promote
+     */
+    private void generatePieceMoves(int square, MoveList moves, boolean capturesOnly) {
+        if (!capturesOnly) {
+            squares[square].generateMoves(square, this, moves);
+            return;
+        }
+        int type = pieceTypes[square];
+        if (type == Piece.PAWN) {
+            int start = moves.size();
+            squares[square].generateMoves(square, this, moves);
+            int kept = start;
+            for (int j = start; j < moves.size(); j++) {
+                int move = moves.get(j);
+                if (Move.isCapture(move) || Move.isPromotion(move)) {
+                    moves.set(kept++, move);
                 }
             }
-            // If king's position is found, exit the outer loop too
-            if (kingRow != -1) {
+            moves.truncate(kept);
+            return;
+        }
+        int offset = square * Bitboard.WORDS;
+        int enemyOffset = colorIndex(!squares[square].isWhite) * Bitboard.WORDS;
+        for (int to = Bitboard.nextAnd(attackBits, offset, colorBits, enemyOffset, 0); to >= 0;
+                 to = Bitboard.nextAnd(attackBits, offset, colorBits, enemyOffset, to + 1)) {
+            moves.add(Move.encode(square, to, type, pieceTypes[to], false));
+        }
+    }
+
+    /**
+     * Finds the pieces pinned to a king: pieces of the king's color that are the first piece on a ray from
+     * the king, with an opposing slider moving along that ray right behind them.
+     *
+     * @param kingSquare the square of the king
+     * @param isWhite the color of the king
+     * @return the number of pinned pieces, stored with their lines in the pin scratch arrays
+     */
+    private int findPins(int kingSquare, boolean isWhite) {
+        int pinCount = 0;
+        for (int direction = 0; direction < AttackTables.DIRECTION_COUNT; direction++) {
+            int first = firstBlocker(kingSquare, direction);
+            if (first < 0 || !hasPieceOfColor(first, isWhite)) {
+                continue;
+            }
+            int second = firstBlocker(first, direction);
+            int sliders = AttackTables.isDiagonal(direction) ? DIAGONAL_SLIDERS : ORTHOGONAL_SLIDERS;
+            if (second >= 0 && isAttacker(second, isWhite, sliders)) {
+                pinnedSquares[pinCount] = first;
+                setLine(pinMasks, pinCount * Bitboard.WORDS, kingSquare, second, direction);
+                pinCount++;
+            }
+        }
+        return pinCount;
+    }
+
+    /**
+     * Stores the squares of a ray from one square up to and including another square on it.
+     *
+     * @param bits the array to store the squares in
+     * @param offset the index of the first word of the set to overwrite
+     * @param from the square the ray starts from (not included)
+     * @param to the last square included, which must lie on the ray
+     * @param direction the direction leading from {@code from} to {@code to}
+     */
+    private static void setLine(long[] bits, int offset, int from, int to, int direction) {
+        int fromOffset = AttackTables.rayOffset(from, direction);
+        int toOffset = AttackTables.rayOffset(to, direction);
+        for (int word = 0; word < Bitboard.WORDS; word++) {
+            bits[offset + word] = AttackTables.RAYS[fromOffset + word] ^ AttackTables.RAYS[toOffset + word];
+        }
+    }
+
+    /**
+     * Works out the material a move wins or loses once every capture on its destination square has been
+     * played out (static exchange evaluation). The two sides take turns recapturing with their least
+     * valuable attacker, and either may stop when going on would lose more; a slider, or a piece that
+     * slides and leaps, that captures reveals any slider behind it on the same line (an X-ray attacker).
+     * Pawns capture forwards, as they do in search, and promote when they capture onto a promotion row.
+     * Pins and checks are ignored. Nothing is allocated, so this is cheap enough for every quiescence node.
+     *
+     * @param move the packed move, usually a capture
+     * @return the material gained by the side making the move, in piece values; negative if it loses material
+     */
+    public double staticExchange(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        boolean isWhite = hasPieceOfColor(from, true);
+        boolean promotes = isPromotionRow(rowOf(to));
+        double promotionGain = PIECE_VALUES[Piece.QUEEN] - PIECE_VALUES[Piece.PAWN];
+
+        // The first capture always happens; then the piece on the square is the one that moved there
+        int type = pieceTypes[from];
+        boolean promotion = type == Piece.PAWN && promotes;
+        exchangeGains[0] = (Move.isCapture(move) ? PIECE_VALUES[Move.captured(move)] : 0.0) + (promotion ? promotionGain : 0.0);
+        double onSquare = promotion ? PIECE_VALUES[Piece.QUEEN] : PIECE_VALUES[type];
+        Arrays.fill(exchanged, 0L);
+        Bitboard.set(exchanged, 0, from);
+
+        int depth = 0;
+        for (boolean side = !isWhite; ; side = !side) {
+            int attacker = leastValuableAttacker(to, side);
+            if (attacker < 0) {
+                break;
+            }
+            promotion = pieceTypes[attacker] == Piece.PAWN && promotes;
+            depth++;
+            exchangeGains[depth] = onSquare + (promotion ? promotionGain : 0.0) - exchangeGains[depth - 1];
+            onSquare = promotion ? PIECE_VALUES[Piece.QUEEN] : PIECE_VALUES[pieceTypes[attacker]];
+            Bitboard.set(exchanged, 0, attacker);
+
+            // Neither side can do better by going on once both stopping and capturing lose for the side to move
+            if (Math.max(-exchangeGains[depth - 1], exchangeGains[depth]) < 0) {
                 break;
             }
         }
-    
-        // Check if the king is in check
-        if (!isKingInCheck(kingRow, kingCol, isWhite)) {
-            return false;
+
+        // Each side takes the better of stopping and capturing, from the last capture back to the first
+        while (depth > 0) {
+            exchangeGains[depth - 1] = -Math.max(-exchangeGains[depth - 1], exchangeGains[depth]);
+            depth--;
         }
-    
-        // Check if there are any valid moves for the player that would get the king out of check
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                Piece piece = getPiece(row, col);
-                if (piece != null && piece.isWhite == isWhite) {
-                    List<int[]> validMoves = piece.getValidMoves(row, col, this);
-                    for (int[] move : validMoves) {
-                        // Temporarily move the piece
-                        Piece capturedPiece = movePiece(row, col, move[0], move[1]);
-    
-                        // Check if the king is still in check
-                        boolean stillInCheck = isKingInCheck(kingRow, kingCol, isWhite);
-    
-                        // Undo the move
-                        movePiece(move[0], move[1], row, col);
-                        setPiece(move[0], move[1], capturedPiece);
-    
-                        // If the king is not in check after the move, it's not checkmate
-                        if (!stillInCheck) {
-                            return false;
-                        }
-                    }
+        return exchangeGains[0];
+    }
+
+    /**
+     * Finds the least valuable piece of a color that attacks a square, skipping the pieces that have already
+     * captured in the current static exchange and looking through them along their lines.
+     *
+     * @param square the square being fought over
+     * @param isWhite the color of the attacking pieces
+     * @return the square of the attacker, or -1 if none is left
+     */
+    private int leastValuableAttacker(int square, boolean isWhite) {
+        int best = -1;
+
+        // Sliding pieces: the nearest piece on each ray that has not captured yet
+        for (int direction = 0; direction < AttackTables.DIRECTION_COUNT; direction++) {
+            int blocker = firstBlocker(square, direction);
+            while (blocker >= 0 && Bitboard.test(exchanged, 0, blocker)) {
+                blocker = firstBlocker(blocker, direction);
+            }
+            int sliders = AttackTables.isDiagonal(direction) ? DIAGONAL_SLIDERS : ORTHOGONAL_SLIDERS;
+            if (blocker >= 0 && hasPieceOfColor(blocker, isWhite) && (sliders & 1 << pieceTypes[blocker]) != 0) {
+                best = lessValuable(best, blocker);
+            }
+        }
+
+        // Leaping pieces
+        best = leastValuableLeaper(AttackTables.KNIGHT, square, isWhite, KNIGHT_LEAPERS, best);
+        best = leastValuableLeaper(AttackTables.CAMEL, square, isWhite, CAMEL_LEAPERS, best);
+        best = leastValuableLeaper(AttackTables.KING, square, isWhite, KING_STEPPERS, best);
+
+        // Pawns, which capture diagonally forwards only in generated moves
+        int pawnRow = rowOf(square) + (isWhite ? 1 : -1);
+        for (int pawnCol = colOf(square) - 1; pawnCol <= colOf(square) + 1; pawnCol += 2) {
+            if (isInsideBoard(pawnRow, pawnCol)) {
+                int pawn = square(pawnRow, pawnCol);
+                if (pieceTypes[pawn] == Piece.PAWN && hasPieceOfColor(pawn, isWhite) && !Bitboard.test(exchanged, 0, pawn)) {
+                    best = lessValuable(best, pawn);
                 }
             }
         }
-    
-        // If no valid moves are found that get the king out of check, it's checkmate
-        return true;
-    }     
+        return best;
+    }
+
+    /**
+     * Finds the least valuable leaper of a color that attacks a square through the given attack table and has
+     * not captured yet in the current static exchange.
+     *
+     * @param table the attack table of the leap (see {@link AttackTables})
+     * @param square the square being fought over
+     * @param isWhite the color of the attacking pieces
+     * @param typeMask the piece types, as a bit mask, that make this leap
+     * @param best the square of the least valuable attacker found so far, or -1
+     * @return the square of the least valuable attacker found, or -1 if there is none
+     */
+    private int leastValuableLeaper(long[] table, int square, boolean isWhite, int typeMask, int best) {
+        int offset = colorIndex(isWhite) * Bitboard.WORDS;
+        for (int from = Bitboard.nextAnd(table, square * Bitboard.WORDS, colorBits, offset, 0); from >= 0;
+             from = Bitboard.nextAnd(table, square * Bitboard.WORDS, colorBits, offset, from + 1)) {
+            if ((typeMask & 1 << pieceTypes[from]) != 0 && !Bitboard.test(exchanged, 0, from)) {
+                best = lessValuable(best, from);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Picks the less valuable of two pieces.
+     *
+     * @param best the square of one piece, or -1 for none
+     * @param square the square of another piece
+     * @return the square of the less valuable piece, keeping {@code best} on a tie
+     */
+    private int lessValuable(int best, int square) {
+        return best < 0 || PIECE_VALUES[pieceTypes[square]] < PIECE_VALUES[pieceTypes[best]] ? square : best;
+    }
+
+    /**
+     * Returns the evaluation of the position for a given player: the material and piece-square bonuses of
+     * their pieces minus those of the opponent's (see {@link Evaluation}). It is kept up to date as pieces
+     * are placed, moved and removed, so this takes constant time.
+     *
+     * @param isWhite true if the player is white; false if the player is black
+     * @return the score in centipawns, positive when the player is ahead
+     */
+    public int evaluate(boolean isWhite) {
+        int us = colorIndex(isWhite);
+        int them = 1 - us;
+        return materialScores[us] + placementScores[us] - materialScores[them] - placementScores[them];
+    }
+
+    /**
+     * Computes the evaluation of {@link #evaluate} from scratch by visiting every piece.
+     *
+     * @param isWhite true if the player is white; false if the player is black
+     * @return the score in centipawns, equal to {@code evaluate(isWhite)} when the board is consistent
+     */
+    public int computeEvaluation(boolean isWhite) {
+        int score = 0;
+        for (int square = Bitboard.next(occupiedBits, 0, 0); square >= 0; square = Bitboard.next(occupiedBits, 0, square + 1)) {
+            Piece piece = squares[square];
+            int value = Evaluation.material(piece.getType()) + Evaluation.placement(piece.getType(), piece.isWhite, square);
+            score += piece.isWhite == isWhite ? value : -value;
+        }
+        return score;
+    }
 
     /**
-     * Calculates the score of the current game board for a given player.
+     * Calculates the material balance of the current game board for a given player, in the units of
+     * {@link Piece#getPieceValue}. It is read from the running evaluation, leaving out piece placement.
      *
      * @param isWhite true if the player is white; false if the player is black
      * @return the score of the game board for the given player
      */
     public double evaluateBoard(boolean isWhite) {
-        double score = 0.0;
-    
-        // Iterate over all pieces on the board
-        for (int row = 0; row < Board.SIZE; row++) {
-            for (int col = 0; col < Board.SIZE; col++) {
-                Piece piece = getPiece(row, col);
-                if (piece != null) {
-                    // Get the value of the piece according to its type
-                    double pieceValue = piece.getPieceValue();
-                    // If the piece belongs to the player we're evaluating for, add its value to the score; otherwise, subtract it
-                    if (piece.isWhite == isWhite) {
-                        score += pieceValue;
-                    } else {
-                        score -= pieceValue;
-                    }
-                }
-            }
+        int us = colorIndex(isWhite);
+        return (materialScores[us] - materialScores[1 - us]) / (double) Evaluation.CENTIPAWNS;
+    }
+
+    /**
+     * Appends all valid moves for a given color to a move list, as packed moves (see {@link Move}).
+     *
+     * @param isWhite a boolean indicating which color's moves to generate
+     * @param moves the list to append the moves to
+     */
+    public void generateMoves(boolean isWhite, MoveList moves) {
+        int count = getPieceCount(isWhite);
+        for (int i = 0; i < count; i++) {
+            int square = getPieceSquare(isWhite, i);
+            squares[square].generateMoves(square, this, moves);
         }
-    
-        return score;
-    }    
+    }
 
     /**
-     * Retrieves a list of all valid moves for a given color on the current board.
+     * Retrieves a list of all valid moves for a given color on the current board. This is a convenience
+     * wrapper around {@link #generateMoves} for callers that want coordinates rather than packed moves.
      * 
      * @param isWhite a boolean indicating which color's moves to retrieve
      * @return a List of int arrays representing each valid move, in the format [startRow, startCol, endRow, endCol]
      */
     public List<int[]> getAllMovesForColor(boolean isWhite) {
-        List<int[]> allMoves = new ArrayList<>();
-    
-        // Iterate over all pieces on the board
-        for (int row = 0; row < SIZE; row++) {
-            for (int col = 0; col < SIZE; col++) {
-                Piece piece = getPiece(row, col);
-                // if the piece is not null and matches the desired color, get its valid moves
-                if (piece != null && piece.isWhite == isWhite) {
-                    List<int[]> validMoves = piece.getValidMoves(row, col, this);
-                    // add each valid move to the list of all moves
-                    for (int[] move : validMoves) {
-                        allMoves.add(new int[]{row, col, move[0], move[1]});
-                    }
-                }
-            }
+        MoveList moves = new MoveList();
+        generateMoves(isWhite, moves);
+        List<int[]> allMoves = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            allMoves.add(Move.toArray(moves.get(i)));
         }
-    
         return allMoves;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,198 @@
+package XXLChess;
+
+/**
+ * Integer evaluation terms used by {@link Board} to keep a running score of the position in centipawns.
+ *
+ * Every piece is worth its material value, {@link Piece#getPieceValue} in hundredths of a pawn, plus a
+ * placement bonus read from a 14x14 piece-square table of its type. The tables reward knights, bishops and
+ * the other minor and compound pieces for standing near the centre, rooks for reaching the opponent's
+ * second row, pawns for nearing their promotion row and kings for staying behind their pawns. Tables are
+ * written from white's side; black reads them upside down, except for pawns, whose promotion rows are not
+ * symmetric (both colors promote on the middle row) and which are scored by their own distance to it.
+ *
+ * The pawn structure is scored separately by {@link #pawnStructure}, since it depends on all the pawns of a
+ * color at once and is worth caching by the pawn hash rather than updating move by move.
+ */
+public final class Evaluation {
+    /** Centipawns in one unit of {@link Piece#getPieceValue}. */
+    public static final int CENTIPAWNS = 100;
+
+    // Bonus per ring of centralisation, from the outer ring (0) to the four centre squares (6), for each type
+    private static final int[] CENTRE_WEIGHTS = new int[Piece.TYPE_COUNT];
+
+    // Bonus of a pawn by the number of moves it still needs to promote; pawns further away get nothing
+    private static final int[] PAWN_ADVANCE = {0, 50, 25};
+
+    // Bonus of a rook on the opponent's second row, and penalty of a king per row it has left its own
+    private static final int ROOK_SECOND_ROW = 15;
+    private static final int KING_ADVANCE = 10;
+
+    // Pawn structure: the penalty for each pawn beyond the first on a file and for a pawn with no pawns of
+    // its color on the neighbouring files, and the bonus for a pawn defended by another pawn
+    private static final int DOUBLED_PAWN = 15;
+    private static final int ISOLATED_PAWN = 12;
+    private static final int DEFENDED_PAWN = 8;
+
+    private static final int[] MATERIAL = new int[Piece.TYPE_COUNT];
+    private static final int[] PLACEMENT = new int[2 * Piece.TYPE_COUNT * Board.SQUARES];
+
+    static {
+        CENTRE_WEIGHTS[Piece.ROOK] = 1;
+        CENTRE_WEIGHTS[Piece.KNIGHT] = 5;
+        CENTRE_WEIGHTS[Piece.BISHOP] = 3;
+        CENTRE_WEIGHTS[Piece.ARCHBISHOP] = 3;
+        CENTRE_WEIGHTS[Piece.CAMEL] = 2;
+        CENTRE_WEIGHTS[Piece.GUARD] = 4;
+        CENTRE_WEIGHTS[Piece.AMAZON] = 1;
+        CENTRE_WEIGHTS[Piece.CHANCELLOR] = 2;
+        CENTRE_WEIGHTS[Piece.QUEEN] = 1;
+
+        for (int type = 0; type < Piece.TYPE_COUNT; type++) {
+            MATERIAL[type] = (int) Math.round(Piece.definition(type, true).getPieceValue() * CENTIPAWNS);
+            for (int square = 0; square < Board.SQUARES; square++) {
+                int mirrored = Board.square(Board.SIZE - 1 - Board.rowOf(square), Board.colOf(square));
+                PLACEMENT[index(type, true, square)] = whitePlacement(type, square);
+                PLACEMENT[index(type, false, mirrored)] = whitePlacement(type, square);
+            }
+        }
+        // Pawns of both colors promote on the middle row, which is one row further from black's pawns
+        for (int square = 0; square < Board.SQUARES; square++) {
+            int row = Board.rowOf(square);
+            PLACEMENT[index(Piece.PAWN, true, square)] = pawnPlacement(row - Board.SIZE / 2);
+            PLACEMENT[index(Piece.PAWN, false, square)] = pawnPlacement(Board.SIZE / 2 - row);
+        }
+    }
+
+    private Evaluation() {
+    }
+
+    /**
+     * Returns the material value of a piece type.
+     *
+     * @param type the piece type code
+     * @return the value of the piece in centipawns
+     */
+    public static int material(int type) {
+        return MATERIAL[type];
+    }
+
+    /**
+     * Returns the piece-square table bonus of a piece of the given type and color standing on a square.
+     *
+     * @param type the piece type code
+     * @param isWhite the color of the piece
+     * @param square the square index
+     * @return the placement bonus in centipawns, negative for poor squares
+     */
+    public static int placement(int type, boolean isWhite, int square) {
+        return PLACEMENT[index(type, isWhite, square)];
+    }
+
+    /**
+     * Scores the pawn structure of a position for white: doubled, isolated and defended pawns of white minus
+     * those of black. Passed pawns are not scored, since the pawns of the two colors stay on their own halves
+     * of the board (both promote on the middle row) and so can never block each other; the piece-square
+     * tables already reward pawns close to promotion.
+     *
+     * @param board the board to score
+     * @return the score in centipawns, positive when white's pawns are better
+     */
+    public static int pawnStructure(Board board) {
+        return pawnStructure(board, true) - pawnStructure(board, false);
+    }
+
+    /**
+     * Scores the pawn structure of one color.
+     *
+     * @param board the board to score
+     * @param isWhite the color whose pawns are scored
+     * @return the score in centipawns
+     */
+    private static int pawnStructure(Board board, boolean isWhite) {
+        // One bit per file with a pawn on it, and the number of pawns
+        int files = 0;
+        int count = 0;
+        for (int square = board.nextPieceSquare(Piece.PAWN, isWhite, 0); square >= 0; square = board.nextPieceSquare(Piece.PAWN, isWhite, square + 1)) {
+            files |= 1 << Board.colOf(square);
+            count++;
+        }
+
+        int score = -DOUBLED_PAWN * (count - Integer.bitCount(files));
+        int behind = isWhite ? 1 : -1;
+        for (int square = board.nextPieceSquare(Piece.PAWN, isWhite, 0); square >= 0; square = board.nextPieceSquare(Piece.PAWN, isWhite, square + 1)) {
+            int row = Board.rowOf(square);
+            int col = Board.colOf(square);
+            int neighbours = 1 << (col + 1) | (col > 0 ? 1 << (col - 1) : 0);
+            if ((files & neighbours) == 0) {
+                score -= ISOLATED_PAWN;
+            }
+            if (isPawn(board, row + behind, col - 1, isWhite) || isPawn(board, row + behind, col + 1, isWhite)) {
+                score += DEFENDED_PAWN;
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Checks whether a square holds a pawn of the given color.
+     *
+     * @param board the board to look at
+     * @param row the row of the square, possibly off the board
+     * @param col the column of the square, possibly off the board
+     * @param isWhite the color of the pawn
+     * @return true if the square is on the board and holds such a pawn, false otherwise
+     */
+    private static boolean isPawn(Board board, int row, int col, boolean isWhite) {
+        if (!board.isInsideBoard(row, col)) {
+            return false;
+        }
+        int square = Board.square(row, col);
+        return board.getPieceType(square) == Piece.PAWN && board.hasPieceOfColor(square, isWhite);
+    }
+
+    /**
+     * Returns the index of a table entry.
+     *
+     * @param type the piece type code
+     * @param isWhite the color of the piece
+     * @param square the square index
+     * @return the index into the placement array
+     */
+    private static int index(int type, boolean isWhite, int square) {
+        return (Board.colorIndex(isWhite) * Piece.TYPE_COUNT + type) * Board.SQUARES + square;
+    }
+
+    /**
+     * Computes the placement bonus of a white piece other than a pawn.
+     *
+     * @param type the piece type code
+     * @param square the square index
+     * @return the bonus in centipawns
+     */
+    private static int whitePlacement(int type, int square) {
+        int row = Board.rowOf(square);
+        int col = Board.colOf(square);
+        if (type == Piece.KING) {
+            return -KING_ADVANCE * (Board.SIZE - 1 - row);
+        }
+        // Rings are counted inwards from the edge, so the centre is ring 6; the middle ring scores nothing
+        int rowRing = (Board.SIZE - 1 - Math.abs(2 * row - (Board.SIZE - 1))) / 2;
+        int colRing = (Board.SIZE - 1 - Math.abs(2 * col - (Board.SIZE - 1))) / 2;
+        int ring = Math.min(rowRing, colRing);
+        int bonus = CENTRE_WEIGHTS[type] * (ring - 3);
+        if (type == Piece.ROOK && row == 1) {
+            bonus += ROOK_SECOND_ROW;
+        }
+        return bonus;
+    }
+
+    /**
+     * Computes the placement bonus of a pawn.
+     *
+     * @param steps the number of moves the pawn needs to reach its promotion row
+     * @return the bonus in centipawns
+     */
+    private static int pawnPlacement(int steps) {
+        return steps > 0 && steps < PAWN_ADVANCE.length ? PAWN_ADVANCE[steps] : 0;
+    }
+}
@@ -0,0 +1,107 @@
+package XXLChess;
+
+/**
+ * A fixed-size cache of scores indexed by a 64-bit hash, such as a position's Zobrist key or the hash of
+ * its pawns alone (see {@link Board#getPawnKey()}).
+ *
+ * Each entry is two longs in one flat array: the key XORed with the score, then the score itself, so that
+ * an entry half overwritten by another thread fails to verify, as in {@link TranspositionTable}. A new score
+ * always replaces the one in its slot. The cache counts its hits and misses; when several threads share it
+ * the counts are approximate, as they are not updated atomically.
+ */
+public class EvaluationCache {
+    /** Value returned by {@link #probe} when the key is not in the cache. */
+    public static final int MISSING = Integer.MIN_VALUE;
+
+    private final long[] entries;
+    private final int indexMask;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a cache with about the given number of entries.
+     *
+     * @param entryCount the number of entries, rounded down to a power of two
+     * @throws IllegalArgumentException if the number is not positive
+     */
+    public EvaluationCache(int entryCount) {
+        if (entryCount <= 0) {
+            throw new IllegalArgumentException("Evaluation cache size must be positive: " + entryCount);
+        }
+        int size = Integer.highestOneBit(entryCount);
+        entries = new long[2 * size];
+        indexMask = size - 1;
+        // An empty slot must not verify as the score 0 of key 0, which is the pawn hash of a board without pawns
+        for (int i = 0; i < entries.length; i += 2) {
+            entries[i] = 1L;
+        }
+    }
+
+    /**
+     * Returns the number of entries in the cache.
+     *
+     * @return the capacity, a power of two
+     */
+    public int capacity() {
+        return indexMask + 1;
+    }
+
+    /**
+     * Looks up a score, counting a hit or a miss.
+     *
+     * @param key the hash the score was stored under
+     * @return the score, or {@link #MISSING} if the key is not in the cache
+     */
+    public int probe(long key) {
+        int index = ((int) key & indexMask) << 1;
+        long score = entries[index + 1];
+        if ((entries[index] ^ score) != key) {
+            misses++;
+            return MISSING;
+        }
+        hits++;
+        return (int) score;
+    }
+
+    /**
+     * Stores a score, replacing whatever was in its slot.
+     *
+     * @param key the hash to store the score under
+     * @param score the score, anything but {@link #MISSING}
+     */
+    public void store(long key, int score) {
+        int index = ((int) key & indexMask) << 1;
+        entries[index + 1] = score;
+        entries[index] = key ^ score;
+    }
+
+    /**
+     * Returns the number of lookups that found their key.
+     *
+     * @return the hit count since the cache was created or cleared
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that did not find their key.
+     *
+     * @return the miss count since the cache was created or cleared
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Removes every entry and resets the hit and miss counts.
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length; i += 2) {
+            entries[i] = 1L;
+            entries[i + 1] = 0L;
+        }
+        hits = 0;
+        misses = 0;
+    }
+}
@@ -1,8 +1,5 @@
 package XXLChess;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Represents an Guard chess piece.
  */
@@ -22,35 +19,31 @@ public class Guard extends Piece {
     /**
      * Checks if a move for the Guard piece is valid.
      *
+     * @param srcRow the row position of the source square
+     * @param srcCol the column position of the source square
      * @param destRow the row position of the destination square
      * @param destCol the column position of the destination square
      * @param board the game board
      * @return true if the move is valid, false otherwise
      */
     @Override
-    public boolean isMoveValid(int destRow, int destCol, Board board) {
+    public boolean isMoveValid(int srcRow, int srcCol, int destRow, int destCol, Board board) {
         // A guard can move like a knight or a king
-        return new Knight(row, col, isWhite).isMoveValid(destRow, destCol, board) ||
-               new King(row, col, isWhite).isMoveValid(destRow, destCol, board);
+        return isLeaperMoveValid(AttackTables.GUARD, srcRow, srcCol, destRow, destCol, board);
     }
 
     /**
-     * Gets all valid moves for the Guard piece on the game board.
+     * Adds all valid moves for the Guard piece on the game board to a move list.
      *
-     * @param row the row position of the piece on the board
-     * @param col the column position of the piece on the board
+     * @param square the square of the piece
+     * @param type the type code to record as the moving piece
      * @param board the game board
-     * @return a list of int arrays representing the valid moves
+     * @param moves the list to append the packed moves to
      */
     @Override
-    public List<int[]> getValidMoves(int row, int col, Board board) {
-        List<int[]> validMoves = new ArrayList<>();
-
+    protected void addMoves(int square, int type, Board board, MoveList moves) {
         // A guard can move like a knight or a king
-        validMoves.addAll(new Knight(row, col, isWhite).getValidMoves(row, col, board));
-        validMoves.addAll(new King(row, col, isWhite).getValidMoves(row, col, board));
-
-        return validMoves;
+        addLeaperMoves(AttackTables.GUARD, square, type, board, moves);
     }
 
     /**
@@ -60,5 +53,15 @@ public class Guard extends Piece {
      */
     public double getPieceValue() {
         return 5.0;
-    }    
+    }
+
+    /**
+     * Gets the type code of the Guard piece.
+     *
+     * @return {@link Piece#GUARD}
+     */
+    @Override
+    public int getType() {
+        return GUARD;
+    }
 }
@@ -1,8 +1,5 @@
 package XXLChess;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Represents an King chess piece.
  */
@@ -22,15 +19,19 @@ public class King extends Piece {
     /**
      * Checks if a move for the King piece is valid.
      *
+     * @param srcRow the row position of the source square
+     * @param srcCol the column position of the source square
      * @param destRow the row position of the destination square
      * @param destCol the column position of the destination square
      * @param board the game board
      * @return true if the move is valid, false otherwise
      */
     @Override
-    public boolean isMoveValid(int destRow, int destCol, Board board) {
-        int rowDiff = Math.abs(destRow - row);
-        int colDiff = Math.abs(destCol - col);
+    public boolean isMoveValid(int srcRow, int srcCol, int destRow, int destCol, Board board) {
+        // King can move only one square in any direction
+        if (isLeaperMoveValid(AttackTables.KING, srcRow, srcCol, destRow, destCol, board)) {
+            return true;
+        }
 
         // Check if the destination square is occupied by a piece of the same color
         Piece destPiece = board.getPiece(destRow, destCol);
@@ -38,23 +39,22 @@ public class King extends Piece {
             return false;
         }
 
-        // King can move only one square in any direction
-        if (rowDiff <= 1 && colDiff <= 1) {
-            return true;
-        }
+        int rowDiff = Math.abs(destRow - srcRow);
+        int colDiff = Math.abs(destCol - srcCol);
 
-        // Castling move
-        if (rowDiff == 0 && colDiff == 2 && !hasMoved) {
-            int rookCol = destCol > col ? (Board.SIZE - 1) : 0;
-            Piece rook = board.getPiece(row, rookCol);
+        // Castling move, only for a king on its source square that has not moved yet
+        Piece king = board.getPiece(srcRow, srcCol);
+        if (rowDiff == 0 && colDiff == 2 && isUnmovedKing(king)) {
+            int rookCol = destCol > srcCol ? (Board.SIZE - 1) : 0;
+            Piece rook = board.getPiece(srcRow, rookCol);
             if (rook != null && rook instanceof Rook && !rook.hasMoved()) {
-                int colDirection = destCol > col ? 1 : -1;
-                for (int c = col + colDirection; c != rookCol; c += colDirection) {
-                    if (board.getPiece(row, c) != null) {
+                int colDirection = destCol > srcCol ? 1 : -1;
+                for (int c = srcCol + colDirection; c != rookCol; c += colDirection) {
+                    if (board.getPiece(srcRow, c) != null) {
                         return false;
                     }
                 }
-                return true;
+                return isCastlingPathSafe(srcRow, srcCol, colDirection, king.isWhite, board);
             }
         }
 
@@ -62,41 +62,28 @@ public class King extends Piece {
     }
 
     /**
-     * Gets all valid moves for the King piece on the game board.
+     * Adds all valid moves for the King piece on the game board to a move list.
      *
-     * @param row the row position of the piece on the board
-     * @param col the column position of the piece on the board
+     * @param square the square of the piece
+     * @param type the type code to record as the moving piece
      * @param board the game board
-     * @return a list of int arrays representing the valid moves
+     * @param moves the list to append the packed moves to
      */
     @Override
-    public List<int[]> getValidMoves(int row, int col, Board board) {
-        List<int[]> validMoves = new ArrayList<>();
+    protected void addMoves(int square, int type, Board board, MoveList moves) {
+        int row = Board.rowOf(square);
+        int col = Board.colOf(square);
 
-        // Generate all possible moves in every direction (up to one square away)
-        for (int rowOffset = -1; rowOffset <= 1; rowOffset++) {
-            for (int colOffset = -1; colOffset <= 1; colOffset++) {
-                if (rowOffset == 0 && colOffset == 0) {
-                    continue; // Skip the current square
-                }
-
-                int newRow = row + rowOffset;
-                int newCol = col + colOffset;
+        // Look up the moves in every direction (up to one square away)
+        addLeaperMoves(AttackTables.KING, square, type, board, moves);
 
-                if (board.isInsideBoard(newRow, newCol)) {
-                    Piece targetPiece = board.getPiece(newRow, newCol);
-                    if (targetPiece == null || targetPiece.isWhite != isWhite) {
-                        validMoves.add(new int[]{newRow, newCol});
-                    }
-                }
-            }
-        }
-
-        // Castling moves
-        if (!hasMoved) {
+        // Castling moves, only for a king on this square that has not moved yet
+        Piece king = board.getPiece(row, col);
+        if (isUnmovedKing(king)) {
             for (int rookCol : new int[]{0, Board.SIZE - 1}) {
                 Piece rook = board.getPiece(row, rookCol);
-                if (rook != null && rook instanceof Rook && !rook.hasMoved()) {
+                // The king's two-square step must stay short of the rook's square
+                if (rook != null && rook instanceof Rook && !rook.hasMoved() && Math.abs(rookCol - col) > 2) {
                     int colDirection = rookCol > col ? 1 : -1;
                     boolean canCastle = true;
                     for (int c = col + colDirection; c != rookCol; c += colDirection) {
@@ -105,14 +92,44 @@ public class King extends Piece {
                             break;
                         }
                     }
-                    if (canCastle) {
-                        validMoves.add(new int[]{row, col + 2 * colDirection});
+                    if (canCastle && isCastlingPathSafe(row, col, colDirection, king.isWhite, board)) {
+                        addMove(square, Board.square(row, col + 2 * colDirection), type, board, moves);
                     }
                 }
             }
         }
+    }
 
-        return validMoves;
+    /**
+     * Checks that a castling king neither starts on, passes through nor lands on a square the opponent
+     * attacks, reading the board's attack map.
+     *
+     * @param row the row of the king
+     * @param col the column the king starts on
+     * @param colDirection 1 to castle towards the last column, -1 towards the first
+     * @param isWhite the color of the king
+     * @param board the game board
+     * @return true if none of the three squares is attacked, false otherwise
+     */
+    private static boolean isCastlingPathSafe(int row, int col, int colDirection, boolean isWhite, Board board) {
+        for (int step = 0; step <= 2; step++) {
+            if (board.isAttacked(Board.square(row, col + step * colDirection), !isWhite)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a piece is a king that has not moved yet and may therefore castle. The moved flag is
+     * read from the piece on the board rather than from this piece, so that shared definitions and pieces
+     * borrowing the king's steps (such as the Guard) never castle.
+     *
+     * @param piece the piece standing on the king's square
+     * @return true if the piece is an unmoved king, false otherwise
+     */
+    private static boolean isUnmovedKing(Piece piece) {
+        return piece != null && piece.getType() == KING && !piece.hasMoved();
     }
 
     /**
@@ -122,5 +139,15 @@ public class King extends Piece {
      */
     public double getPieceValue() {
         return 99999.0;
-    }    
+    }
+
+    /**
+     * Gets the type code of the King piece.
+     *
+     * @return {@link Piece#KING}
+     */
+    @Override
+    public int getType() {
+        return KING;
+    }
 }
@@ -1,8 +1,5 @@
 package XXLChess;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Represents an Knight chess piece.
  */
@@ -22,61 +19,31 @@ public class Knight extends Piece {
     /**
      * Checks if a move for the Knight piece is valid.
      *
+     * @param srcRow the row position of the source square
+     * @param srcCol the column position of the source square
      * @param destRow the row position of the destination square
      * @param destCol the column position of the destination square
      * @param board the game board
      * @return true if the move is valid, false otherwise
      */
     @Override
-    public boolean isMoveValid(int destRow, int destCol, Board board) {
-        int rowDiff = Math.abs(destRow - row);
-        int colDiff = Math.abs(destCol - col);
-
-        // Check if the destination square is occupied by a piece of the same color
-        Piece destPiece = board.getPiece(destRow, destCol);
-        if (destPiece != null && destPiece.isWhite == isWhite) {
-            return false;
-        }
-
+    public boolean isMoveValid(int srcRow, int srcCol, int destRow, int destCol, Board board) {
         // Knight moves in an L-shape (two squares in one direction and one square in the other)
-        if ((rowDiff == 2 && colDiff == 1) || (rowDiff == 1 && colDiff == 2)) {
-            return true;
-        }
-
-        return false;
+        return isLeaperMoveValid(AttackTables.KNIGHT, srcRow, srcCol, destRow, destCol, board);
     }
 
     /**
-     * Gets all valid moves for the Knight piece on the game board.
+     * Adds all valid moves for the Knight piece on the game board to a move list.
      *
-     * @param row the row position of the piece on the board
-     * @param col the column position of the piece on the board
+     * @param square the square of the piece
+     * @param type the type code to record as the moving piece
      * @param board the game board
-     * @return a list of int arrays representing the valid moves
+     * @param moves the list to append the packed moves to
      */
     @Override
-    public List<int[]> getValidMoves(int row, int col, Board board) {
-        List<int[]> validMoves = new ArrayList<>();
-
-        // Generate all possible L-shaped moves for the knight
-        int[][] offsets = {
-            {-2, -1}, {-2, 1}, {-1, -2}, {-1, 2},
-            {1, -2}, {1, 2}, {2, -1}, {2, 1}
-        };
-
-        for (int[] offset : offsets) {
-            int newRow = row + offset[0];
-            int newCol = col + offset[1];
-
-            if (board.isInsideBoard(newRow, newCol)) {
-                Piece targetPiece = board.getPiece(newRow, newCol);
-                if (targetPiece == null || targetPiece.isWhite != isWhite) {
-                    validMoves.add(new int[]{newRow, newCol});
-                }
-            }
-        }
-
-        return validMoves;
+    protected void addMoves(int square, int type, Board board, MoveList moves) {
+        // Look up the L-shaped moves for the knight
+        addLeaperMoves(AttackTables.KNIGHT, square, type, board, moves);
     }
 
     /**
@@ -86,5 +53,15 @@ public class Knight extends Piece {
      */
     public double getPieceValue() {
         return 2.0;
-    }    
-}
\ No newline at end of file
+    }
+
+    /**
+     * Gets the type code of the Knight piece.
+     *
+     * @return {@link Piece#KNIGHT}
+     */
+    @Override
+    public int getType() {
+        return KNIGHT;
+    }
+}
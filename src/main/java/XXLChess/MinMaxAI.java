@@ -1,11 +1,119 @@
 package XXLChess;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class MinMaxAI {
+    // Scores are in centipawns (see Evaluation); this bound lies beyond any score a position can have
+    private static final int INFINITY = 1_000_000_000;
+
+    // Score of the side to move when it is checkmated at the root. A mate found n plies from the root scores
+    // n less, so that shorter mates are preferred; scores beyond MATE_BOUND are mates, far above any material
+    static final int MATE = INFINITY / 2;
+    private static final int MATE_BOUND = MATE - Board.MAX_PLY;
+
+    // Time management: the share of the remaining time planned for one move, how much longer than that a
+    // move may take before the search is cut off, and how often the clock is read
+    private static final int MOVES_TO_GO = 40;
+    private static final int HARD_LIMIT_FACTOR = 3;
+    private static final int CLOCK_CHECK_INTERVAL = 1024;
+
+    // Quiescence search skips a capture when even winning the piece, plus this margin, cannot raise the score
+    // to alpha
+    private static final int DELTA_MARGIN = 200;
+
+    // Scores are whole centipawns, so no score falls inside a window this narrow: a search with it only
+    // tells whether a move beats alpha
+    private static final int NULL_WINDOW = 1;
+
+    // Aspiration windows: the first half-width around the previous iteration's score, how much it grows
+    // after each failure, and the width beyond which the window is opened completely
+    private static final int ASPIRATION_WINDOW = 50;
+    private static final int ASPIRATION_GROWTH = 4;
+    private static final int ASPIRATION_LIMIT = 1600;
+
+    // Selective search: the depths and margins of null-move pruning, late move reductions, futility pruning
+    // and razoring
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_MIN_MOVES = 4;
+    private static final int FUTILITY_DEPTH = 2;
+    private static final int FUTILITY_MARGIN = 200;
+    private static final int RAZOR_DEPTH = 2;
+    private static final int RAZOR_MARGIN = 300;
+
+    // Longest line kept in the principal variation table
+    private static final int PV_PLIES = 64;
+
+    /** Default number of entries in the evaluation cache. */
+    public static final int EVALUATION_CACHE_ENTRIES = 1 << 16;
+    /** Default number of entries in the pawn hash table. */
+    public static final int PAWN_CACHE_ENTRIES = 1 << 12;
+
     private Board board;
     private int depth;
     private boolean isWhite;
+    private final TranspositionTable transpositionTable;
+
+    // Evaluations of positions by Zobrist key and pawn structure scores by pawn hash, both for white and
+    // shared with helper and worker searchers like the transposition table
+    private final EvaluationCache evaluationCache;
+    private final EvaluationCache pawnCache;
+
+    // One move list per ply, reused by every node searched at that ply, and the root moves, which keep the
+    // best move of each iteration in front for the next one
+    private final MoveList[] moveLists = new MoveList[Board.MAX_PLY + 1];
+    private final MoveList rootMoves = new MoveList();
+    private final MoveOrdering moveOrdering;
+
+    // Time left on the AI's clock (negative for no time control), and the limits of the current search;
+    // ponderHit() may start the clock from another thread
+    private volatile long timeLeftMillis = -1;
+    private volatile long searchStart;
+    private volatile long softLimitNanos;
+    private volatile long hardLimitNanos;
+    private boolean stopped;
+    private long nodes;
+    private int completedDepth;
+
+    // Lazy SMP: the number of helper threads searching alongside this one and the caller's pool they run on,
+    // and for a helper thread the signal that the main search has finished
+    private int helpers;
+    private ExecutorService helperPool;
+    private AtomicBoolean stopSignal;
+
+    // Set by stop() from another thread; shared with the helper and worker searchers
+    private final AtomicBoolean cancelSignal;
+
+    // Root splitting: the pool the root moves after the first are searched on, or null to search them in turn,
+    // the searcher each of its threads reuses for every root move it is given, and the number of the search
+    // a searcher's board was last set up for
+    private ForkJoinPool rootPool;
+    private ThreadLocal<MinMaxAI> workers;
+    private int searchCount;
+
+    // Selective search switches, so that each technique can be turned off to compare node counts
+    private boolean nullMovePruning = true;
+    private boolean lateMoveReductions = true;
+    private boolean futilityPruning = true;
+    private boolean razoring = true;
+
+    // Triangular principal variation table: row p holds the best line found from ply p (counted from the
+    // root) of the current iteration, and the line and score of the last completed iteration
+    private final int[] pvMoves = new int[PV_PLIES * PV_PLIES];
+    private final int[] pvLengths = new int[PV_PLIES];
+    private int rootPly;
+    private int rootScore;
+    private int[] principalVariation = new int[0];
+    private int score;
 
     /**
      * Creates a new MinMaxAI instance with the specified board, search depth, and player color.
@@ -15,9 +123,218 @@ public class MinMaxAI {
      * @param isWhite true if this AI is playing as the white player, false if playing as black
      */
     public MinMaxAI(Board board, int depth, boolean isWhite) {
+        this(board, depth, isWhite, new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES));
+    }
+
+    /**
+     * Creates a new MinMaxAI instance that stores its results in the given transposition table, which can be
+     * kept between moves so that later searches reuse earlier results.
+     *
+     * @param board the game board to use for evaluating moves
+     * @param depth the maximum search depth to use when evaluating moves
+     * @param isWhite true if this AI is playing as the white player, false if playing as black
+     * @param transpositionTable the table to probe and store search results in
+     */
+    public MinMaxAI(Board board, int depth, boolean isWhite, TranspositionTable transpositionTable) {
+        this(board, depth, isWhite, transpositionTable, new EvaluationCache(EVALUATION_CACHE_ENTRIES),
+             new EvaluationCache(PAWN_CACHE_ENTRIES));
+    }
+
+    /**
+     * Creates a new MinMaxAI instance that stores its results in the given transposition table and
+     * evaluation caches, which can all be kept between moves so that later searches reuse earlier results.
+     *
+     * @param board the game board to use for evaluating moves
+     * @param depth the maximum search depth to use when evaluating moves
+     * @param isWhite true if this AI is playing as the white player, false if playing as black
+     * @param transpositionTable the table to probe and store search results in
+     * @param evaluationCache the cache of position evaluations by Zobrist key
+     * @param pawnCache the cache of pawn structure scores by pawn hash
+     */
+    public MinMaxAI(Board board, int depth, boolean isWhite, TranspositionTable transpositionTable,
+                    EvaluationCache evaluationCache, EvaluationCache pawnCache) {
         this.board = board;
         this.depth = depth;
         this.isWhite = isWhite;
+        this.transpositionTable = transpositionTable;
+        this.moveOrdering = new MoveOrdering(board);
+        this.evaluationCache = evaluationCache;
+        this.pawnCache = pawnCache;
+        this.cancelSignal = new AtomicBoolean();
+    }
+
+    /**
+     * Creates a helper or worker searcher on a copy of another searcher's board. It shares the other's
+     * transposition table, evaluation caches and cancellation signal and has the same selective search
+     * settings.
+     *
+     * @param other the searcher to help
+     */
+    private MinMaxAI(MinMaxAI other) {
+        this.board = new Board(other.board);
+        this.depth = other.depth;
+        this.isWhite = other.isWhite;
+        this.transpositionTable = other.transpositionTable;
+        this.moveOrdering = new MoveOrdering(board);
+        this.evaluationCache = other.evaluationCache;
+        this.pawnCache = other.pawnCache;
+        this.searchCount = other.searchCount;
+        this.cancelSignal = other.cancelSignal;
+        nullMovePruning = other.nullMovePruning;
+        lateMoveReductions = other.lateMoveReductions;
+        futilityPruning = other.futilityPruning;
+        razoring = other.razoring;
+    }
+
+    /**
+     * Sets the time left on this AI's clock. The next searches then plan to use about 1/{@value #MOVES_TO_GO}
+     * of it (the soft limit, after which no new iteration is started) and never more than
+     * {@value #HARD_LIMIT_FACTOR} times that (the hard limit, at which the running iteration is abandoned).
+     *
+     * @param timeLeftMillis the remaining time in milliseconds, or a negative value to search to the full
+     *                       depth without a time limit
+     */
+    public void setTimeLeft(long timeLeftMillis) {
+        this.timeLeftMillis = timeLeftMillis;
+    }
+
+    /**
+     * Sets the helper threads that search each move alongside this one. Helpers search the same position on
+     * their own copies of the board ("Lazy SMP"); they share nothing but the transposition table, so each
+     * one's results speed up the others and this thread, whose move is played. The pool belongs to the caller,
+     * who keeps it between moves and shuts it down; it should have a thread for every helper, as helpers that
+     * have not started when this search finishes are skipped.
+     *
+     * @param helpers the number of helper threads, or 0 to search on this thread alone
+     * @param helperPool the pool to run the helpers on, or null if there are none
+     * @throws IllegalArgumentException if the number is negative, or helpers are asked for without a pool
+     */
+    public void setHelpers(int helpers, ExecutorService helperPool) {
+        if (helpers < 0 || (helpers > 0 && helperPool == null)) {
+            throw new IllegalArgumentException("Invalid number of helper threads: " + helpers);
+        }
+        this.helpers = helpers;
+        this.helperPool = helperPool;
+    }
+
+    /**
+     * Sets a fork-join pool to split the root moves across. The first root move, which is the best one of
+     * the previous iteration, is still searched alone to get a bound; the others are then searched in
+     * parallel with a null window on that bound ("Young Brothers Wait"), each pool thread on its own copy of
+     * the board, and only the ones that beat it are searched again for their score.
+     *
+     * @param rootPool the pool to search the root moves on, or null to search them one after another
+     */
+    public void setRootPool(ForkJoinPool rootPool) {
+        this.rootPool = rootPool;
+        workers = rootPool == null ? null : ThreadLocal.withInitial(() -> new MinMaxAI(this));
+    }
+
+    /**
+     * Turns null-move pruning on or off. When the side to move could pass and still keep a score of beta or
+     * more after a reduced search, the position is cut off without searching its moves. It is never tried
+     * in check or without pieces other than pawns and the king, where passing may be the only good move.
+     *
+     * @param enabled true to use null-move pruning (the default), false otherwise
+     */
+    public void setNullMovePruning(boolean enabled) {
+        this.nullMovePruning = enabled;
+    }
+
+    /**
+     * Turns late move reductions on or off. Quiet moves that come late in the move ordering are searched one
+     * or two plies shallower, and only searched again at full depth if they turn out to beat alpha.
+     *
+     * @param enabled true to use late move reductions (the default), false otherwise
+     */
+    public void setLateMoveReductions(boolean enabled) {
+        this.lateMoveReductions = enabled;
+    }
+
+    /**
+     * Turns futility pruning on or off. Close to the leaves, a position whose evaluation is far above beta
+     * is cut off, and when it is far below alpha, quiet moves that do not give check are skipped.
+     *
+     * @param enabled true to use futility pruning (the default), false otherwise
+     */
+    public void setFutilityPruning(boolean enabled) {
+        this.futilityPruning = enabled;
+    }
+
+    /**
+     * Turns razoring on or off. Close to the leaves, a position whose evaluation is far below alpha is
+     * resolved with quiescence search alone if that confirms it cannot reach alpha.
+     *
+     * @param enabled true to use razoring (the default), false otherwise
+     */
+    public void setRazoring(boolean enabled) {
+        this.razoring = enabled;
+    }
+
+    /**
+     * Stops the search running on another thread as soon as possible, including its first iteration, so it
+     * may return null and any move it returns should be discarded. The signal is checked every
+     * {@value #CLOCK_CHECK_INTERVAL} positions. A stopped AI stays stopped: a search started after this
+     * call, or a call made before the search starts, returns at once.
+     */
+    public void stop() {
+        cancelSignal.set(true);
+    }
+
+    /**
+     * Checks whether {@link #stop} has been called.
+     *
+     * @return true if the AI has been stopped, false otherwise
+     */
+    public boolean isCancelled() {
+        return cancelSignal.get();
+    }
+
+    /**
+     * Puts a search running on another thread under time control from now on. A search started to ponder,
+     * without a clock, on the position the opponent was expected to reach keeps everything it has found so
+     * far when the opponent does play into it; from this call on it stops at the limits of
+     * {@link #setTimeLeft}, so it either returns its move at once or carries on for as long as the clock
+     * allows.
+     *
+     * @param timeLeftMillis the remaining time in milliseconds
+     */
+    public void ponderHit(long timeLeftMillis) {
+        startClock(timeLeftMillis);
+    }
+
+    /**
+     * Starts the clock of a search: its soft and hard limits are measured from now.
+     *
+     * @param timeLeftMillis the remaining time in milliseconds, or a negative value for no time limit
+     */
+    private synchronized void startClock(long timeLeftMillis) {
+        searchStart = System.nanoTime();
+        softLimitNanos = softLimit(timeLeftMillis) * 1_000_000L;
+        hardLimitNanos = hardLimit(timeLeftMillis) * 1_000_000L;
+        // Written last, so that a search that sees the time control also sees its limits
+        this.timeLeftMillis = timeLeftMillis;
+    }
+
+    /**
+     * Returns the time a search plans to use when the given time is left on the clock.
+     *
+     * @param timeLeftMillis the remaining time in milliseconds
+     * @return the soft limit in milliseconds
+     */
+    public static long softLimit(long timeLeftMillis) {
+        return Math.max(0, timeLeftMillis / MOVES_TO_GO);
+    }
+
+    /**
+     * Returns the time after which a search is cut off when the given time is left on the clock. It is a few
+     * times the soft limit, and at most a quarter of the remaining time.
+     *
+     * @param timeLeftMillis the remaining time in milliseconds
+     * @return the hard limit in milliseconds
+     */
+    public static long hardLimit(long timeLeftMillis) {
+        return Math.min(softLimit(timeLeftMillis) * HARD_LIMIT_FACTOR, Math.max(0, timeLeftMillis / 4));
     }
 
     /**
@@ -26,38 +343,426 @@ public class MinMaxAI {
      * elements represent the starting position of the piece to move, and the last two elements represent the ending
      * position of the piece to move.
      *
-     * @return the best move for the current player
+     * The search deepens one ply at a time up to the configured depth. When a clock is set with
+     * {@link #setTimeLeft}, no iteration is started after the soft limit and a running one is abandoned at the
+     * hard limit; the move returned is always the best one of the last completed iteration. Helper threads
+     * (see {@link #setHelpers}) run until the main search is done.
+     *
+     * @return the best move for the current player, or null if the player has no legal moves (checkmate or
+     *         stalemate)
      */
     public int[] getBestMove() {
-        int[] bestMove = new int[4];
-        double bestScore = Double.NEGATIVE_INFINITY;
-        List<int[]> allMoves = board.getAllMovesForColor(isWhite);
+        transpositionTable.newSearch();
+
+        // Start the helpers on copies made before the main search starts changing the board; every other
+        // helper starts one ply deeper so that they do not all search the same iteration in step. A cancelled
+        // search starts none
+        AtomicBoolean helperStop = new AtomicBoolean();
+        List<MinMaxAI> helperSearches = new ArrayList<>();
+        List<Future<?>> helperResults = new ArrayList<>();
+        for (int i = 1; i <= helpers && !cancelSignal.get(); i++) {
+            MinMaxAI helper = new MinMaxAI(this);
+            helper.stopSignal = helperStop;
+            int firstDepth = 1 + i % 2;
+            helperSearches.add(helper);
+            // A helper still queued behind another search's when this one ends has nothing left to help with
+            helperResults.add(helperPool.submit(() -> {
+                if (!helperStop.get()) {
+                    helper.iterate(firstDepth);
+                }
+            }));
+        }
+
+        int bestMove = iterate(1);
+
+        if (!helperResults.isEmpty()) {
+            helperStop.set(true);
+            try {
+                for (Future<?> result : helperResults) {
+                    result.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Helper search failed", e.getCause());
+            }
+            for (MinMaxAI helper : helperSearches) {
+                nodes += helper.nodes;
+            }
+        }
+
+        return bestMove == Move.NONE ? null : Move.toArray(bestMove);
+    }
+
+    /**
+     * Runs the iterative deepening loop from the given depth up to the configured one. Every iteration after
+     * the first starts with a narrow window around the previous score, which is widened and searched again
+     * whenever the score falls outside it.
+     *
+     * @param firstDepth the depth of the first iteration
+     * @return the best move of the last completed iteration, or {@link Move#NONE} if none completed
+     */
+    private int iterate(int firstDepth) {
+        // Read the time left under the clock's lock, in case ponderHit is setting it right now
+        synchronized (this) {
+            startClock(timeLeftMillis);
+        }
+        stopped = false;
+        nodes = 0;
+        completedDepth = 0;
+        searchCount++;
+        rootPly = board.getPly();
+        principalVariation = new int[0];
+        score = 0;
+        moveOrdering.newSearch();
+
+        rootMoves.clear();
+        board.generateLegalMoves(isWhite, rootMoves);
+        moveOrdering.order(rootMoves, board.getPly());
+        int bestMove = Move.NONE;
+        if (rootMoves.size() == 0) {
+            return bestMove;
+        }
+
+        for (int iterationDepth = firstDepth; iterationDepth <= depth && !cancelSignal.get(); iterationDepth++) {
+            // A deeper iteration takes many times longer than the last one, so only start it in the first half
+            // of the planned time
+            if (iterationDepth > firstDepth && timeLeftMillis >= 0 && System.nanoTime() - searchStart > softLimitNanos / 2) {
+                break;
+            }
+
+            int window = ASPIRATION_WINDOW;
+            int alpha = completedDepth > 0 ? score - window : -INFINITY;
+            int beta = completedDepth > 0 ? score + window : INFINITY;
+            int move = searchRoot(iterationDepth, alpha, beta);
+            while (!stopped && (rootScore <= alpha && alpha > -INFINITY || rootScore >= beta && beta < INFINITY)) {
+                // Outside the window: widen it on the side that failed and search again
+                window *= ASPIRATION_GROWTH;
+                if (rootScore <= alpha) {
+                    alpha = window > ASPIRATION_LIMIT ? -INFINITY : score - window;
+                } else {
+                    beta = window > ASPIRATION_LIMIT ? INFINITY : score + window;
+                }
+                move = searchRoot(iterationDepth, alpha, beta);
+            }
+            if (stopped) {
+                break;
+            }
+            bestMove = move;
+            score = rootScore;
+            completedDepth = iterationDepth;
+            principalVariation = Arrays.copyOf(pvMoves, pvLengths[0]);
+            moveToFront(rootMoves, bestMove);
+        }
+        return bestMove;
+    }
+
+    /**
+     * Returns the depth of the last iteration the previous search completed.
+     *
+     * @return the completed depth, 0 if there were no moves or no search yet
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Returns the number of positions visited by the previous search, over all of its threads.
+     *
+     * @return the node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the cache of position evaluations, whose hit and miss counts cover every search this AI and its
+     * helper threads have made.
+     *
+     * @return the evaluation cache
+     */
+    public EvaluationCache getEvaluationCache() {
+        return evaluationCache;
+    }
+
+    /**
+     * Returns the pawn hash table, which caches pawn structure scores for the evaluation cache's misses.
+     *
+     * @return the pawn structure cache
+     */
+    public EvaluationCache getPawnCache() {
+        return pawnCache;
+    }
+
+    /**
+     * Returns the score of the last iteration the previous search completed, for the AI's side.
+     *
+     * @return the score in piece values, 0 if no iteration completed; a forced mate scores far above any
+     *         material, and being mated far below
+     */
+    public double getScore() {
+        return score / (double) Evaluation.CENTIPAWNS;
+    }
+
+    /**
+     * Returns the principal variation of the previous search: the best move followed by the replies both
+     * sides are expected to play, as found by the last completed iteration.
+     *
+     * @return a new array of packed moves (see {@link Move}), empty if no iteration completed
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * Returns the principal variation of the previous search as text, for example {@code h2h4 g13g12}.
+     *
+     * @return the moves of the principal variation separated by spaces
+     */
+    public String getPrincipalVariationText() {
+        StringBuilder text = new StringBuilder();
+        for (int move : principalVariation) {
+            if (text.length() > 0) {
+                text.append(' ');
+            }
+            text.append(Move.toString(move));
+        }
+        return text.toString();
+    }
+
+    /**
+     * Searches every root move to the given depth: the first with the full window, the others with a null
+     * window that only proves they are no better, searching again with the full window if one is.
+     *
+     * @param depth the depth of this iteration, at least 1
+     * @param alpha the lower end of the aspiration window
+     * @param beta the upper end of the aspiration window
+     * @return the best root move, or {@link Move#NONE} if there are no moves or the search was stopped; its
+     *         score is left in {@code rootScore}
+     */
+    private int searchRoot(int depth, int alpha, int beta) {
+        if (rootPool != null && rootMoves.size() > 1) {
+            return splitRoot(depth, alpha, beta);
+        }
+        int bestMove = Move.NONE;
+        int bestScore = -INFINITY;
+        pvLengths[0] = 0;
+
+        for (int i = 0; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
 
-        for (int[] move : allMoves) {
             // Simulate move
-            Piece capturedPiece = board.movePiece(move[0], move[1], move[2], move[3]);
+            board.makeMove(move);
 
-            // Calculate move score using min-max
-            double moveScore = minValue(depth - 1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, !isWhite);
+            // Calculate move score; only a score above the best so far matters
+            int moveScore;
+            if (i == 0) {
+                moveScore = -search(depth - 1, -beta, -alpha, !isWhite, true);
+            } else {
+                moveScore = -search(depth - 1, -alpha - NULL_WINDOW, -alpha, !isWhite, true);
+                if (moveScore > alpha && moveScore < beta) {
+                    moveScore = -search(depth - 1, -beta, -alpha, !isWhite, true);
+                }
+            }
 
             // Revert the move
-            board.movePiece(move[2], move[3], move[0], move[1]);
-            if (capturedPiece != null) {
-                board.setPiece(move[2], move[3], capturedPiece);
+            board.unmakeMove();
+
+            if (stopped) {
+                return Move.NONE;
             }
 
             // Update best move
             if (moveScore > bestScore) {
                 bestScore = moveScore;
                 bestMove = move;
+                if (moveScore > alpha) {
+                    alpha = moveScore;
+                    updatePrincipalVariation(0, move);
+                }
+            }
+            if (alpha >= beta) {
+                break;
             }
         }
 
+        rootScore = bestScore;
         return bestMove;
     }
 
     /**
-     * Computes the maximum possible score of a given game state using the Min-Max algorithm.
+     * Searches the root moves on the root pool: the first one on this thread, then the rest in parallel with
+     * a null window on the first one's score. Once every task is done, the moves are compared in root move
+     * order, so ties go to the earlier move as in {@link #searchRoot}.
+     *
+     * @param depth the depth of this iteration, at least 1
+     * @param alpha the lower end of the aspiration window
+     * @param beta the upper end of the aspiration window
+     * @return the best root move, or {@link Move#NONE} if the search was stopped; its score is left in
+     *         {@code rootScore}
+     */
+    private int splitRoot(int depth, int alpha, int beta) {
+        int bestMove = rootMoves.get(0);
+        pvLengths[0] = 0;
+        board.makeMove(bestMove);
+        int bestScore = -search(depth - 1, -beta, -alpha, !isWhite, true);
+        board.unmakeMove();
+        if (stopped) {
+            return Move.NONE;
+        }
+        rootScore = bestScore;
+        if (bestScore > alpha) {
+            updatePrincipalVariation(0, bestMove);
+        }
+        if (bestScore >= beta) {
+            return bestMove;
+        }
+
+        int bound = Math.max(alpha, bestScore);
+        RootMoveTask[] tasks = new RootMoveTask[rootMoves.size() - 1];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new RootMoveTask(this, rootMoves.get(i + 1), depth - 1, bound, beta);
+        }
+        int[] scores = rootPool.invoke(new RecursiveTask<int[]>() {
+            @Override
+            protected int[] compute() {
+                invokeAll(tasks);
+                int[] scores = new int[tasks.length];
+                for (int i = 0; i < tasks.length; i++) {
+                    scores[i] = tasks[i].join();
+                }
+                return scores;
+            }
+        });
+
+        for (int i = 0; i < tasks.length; i++) {
+            nodes += tasks[i].nodes;
+            stopped |= tasks[i].stopped;
+            if (scores[i] > bestScore) {
+                bestScore = scores[i];
+                bestMove = tasks[i].move;
+                if (scores[i] > alpha) {
+                    int[] line = tasks[i].line;
+                    updatePrincipalVariation(0, bestMove, line, 0, line.length);
+                }
+            }
+        }
+        rootScore = bestScore;
+        return stopped ? Move.NONE : bestMove;
+    }
+
+    /**
+     * Returns the calling pool thread's searcher for the root moves of a split search, set up to search the
+     * root position of this search. Each thread's searcher has its own board and move lists, which are kept
+     * from one root move to the next and only copied again when a new search starts; it shares the
+     * transposition table and evaluation caches and stops at the same deadline as this one.
+     *
+     * @return the searcher, with its node count and stop flag cleared
+     */
+    private MinMaxAI getWorker() {
+        MinMaxAI worker = workers.get();
+        if (worker.searchCount != searchCount) {
+            // The pool threads only run while this searcher waits at the root, so its board can be read
+            worker.board.copyPosition(board);
+            worker.moveOrdering.newSearch();
+            worker.searchCount = searchCount;
+        }
+        worker.timeLeftMillis = timeLeftMillis;
+        worker.searchStart = searchStart;
+        worker.hardLimitNanos = hardLimitNanos;
+        worker.completedDepth = completedDepth;
+        worker.stopSignal = stopSignal;
+        worker.nodes = 0;
+        worker.stopped = false;
+        return worker;
+    }
+
+    /**
+     * A fork-join task that searches one root move of a split search.
+     */
+    private static class RootMoveTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient MinMaxAI root;
+        private final int move;
+        private final int depth;
+        private final int bound;
+        private final int beta;
+
+        // Filled in by compute, since the pool thread's searcher goes on to other root moves: the positions
+        // visited, whether the search was stopped, and the best line below the move if it beat the bound
+        private long nodes;
+        private boolean stopped;
+        private int[] line;
+
+        /**
+         * Creates a task for one root move.
+         *
+         * @param root the searcher splitting its root moves
+         * @param move the root move to make first
+         * @param depth the depth left below the root move
+         * @param bound the score the move has to beat
+         * @param beta the upper end of the root's aspiration window
+         */
+        RootMoveTask(MinMaxAI root, int move, int depth, int bound, int beta) {
+            this.root = root;
+            this.move = move;
+            this.depth = depth;
+            this.bound = bound;
+            this.beta = beta;
+        }
+
+        /**
+         * Makes the root move on the pool thread's searcher and searches the position after it, first with a
+         * null window that only tells whether the move beats the bound and then, only if it does, with the
+         * full window above the bound for its score.
+         *
+         * @return the score of the move for the root player, at most the bound if it does not beat it
+         */
+        @Override
+        protected Integer compute() {
+            MinMaxAI worker = root.getWorker();
+            worker.board.makeMove(move);
+            int score = -worker.search(depth, -bound - NULL_WINDOW, -bound, !worker.isWhite, true);
+            if (score > bound && score < beta && !worker.stopped) {
+                score = -worker.search(depth, -beta, -bound, !worker.isWhite, true);
+            }
+            worker.board.unmakeMove();
+            nodes = worker.nodes;
+            stopped = worker.stopped;
+            if (score > bound) {
+                line = Arrays.copyOfRange(worker.pvMoves, PV_PLIES, PV_PLIES + Math.min(worker.pvLengths[1], PV_PLIES - 1));
+            }
+            return score;
+        }
+    }
+
+    /**
+     * Counts a visited position and, every {@value #CLOCK_CHECK_INTERVAL} positions, stops the search if it
+     * has been cancelled with {@link #stop}, has passed the hard deadline or, for a helper thread, if the
+     * main search has finished. Unless cancelled, the main search's first iteration is never stopped, so
+     * there is always a move to play.
+     *
+     * @return true if the search has been stopped, false otherwise
+     */
+    private boolean isStopped() {
+        if (++nodes % CLOCK_CHECK_INTERVAL == 0) {
+            if (cancelSignal.get()) {
+                stopped = true;
+            } else if (stopSignal != null) {
+                stopped = stopSignal.get();
+            } else if (timeLeftMillis >= 0 && completedDepth > 0 && System.nanoTime() - searchStart > hardLimitNanos) {
+                stopped = true;
+            }
+        }
+        return stopped;
+    }
+
+    /**
+     * Computes the maximum possible score of a given game state for the player to move. Scores are given in
+     * the units of {@link Piece#getPieceValue}, while the search itself works in whole centipawns. Being
+     * checkmated scores far below any loss of material, and stalemate scores 0. The position is the root of
+     * the search, as in {@link #getBestMove}, so plies are counted from it.
      *
      * @param depth the maximum depth of the search tree to explore.
      * @param alpha the current best score for the maximizing player.
@@ -66,78 +771,423 @@ public class MinMaxAI {
      * @return the maximum score that can be achieved by the player to move.
      */
     public double maxValue(int depth, double alpha, double beta, boolean isWhite) {
-        // Base case - end of game
-        if (depth == 0 || board.isCheckmate(isWhite)) {
-            return board.evaluateBoard(isWhite);
+        rootPly = board.getPly();
+        return search(depth, toCentipawns(alpha), toCentipawns(beta), isWhite, true) / (double) Evaluation.CENTIPAWNS;
+    }
+
+    /**
+     * Converts a score in piece values to centipawns, clamping infinite bounds to the search's own.
+     *
+     * @param score the score in the units of {@link Piece#getPieceValue}
+     * @return the score in centipawns, between {@code -INFINITY} and {@code INFINITY}
+     */
+    private static int toCentipawns(double score) {
+        return (int) Math.round(Math.max(-INFINITY, Math.min(INFINITY, score * Evaluation.CENTIPAWNS)));
+    }
+
+    /**
+     * Searches a position with principal variation search, a negamax alpha-beta search where scores are
+     * always seen from the side to move. The first move is searched with the full window; later moves are
+     * only tested with a null window and searched again with the full window if they beat alpha. A position
+     * whose window is wider than a null window lies on the principal variation, whose moves are recorded in
+     * the triangular table. Outside it, the selective techniques that can be switched on and off prune or
+     * reduce the search.
+     *
+     * @param depth the depth left to search
+     * @param alpha the score the side to move already has elsewhere
+     * @param beta the score above which the opponent avoids this position
+     * @param isWhite true if white is to move, false otherwise
+     * @param allowNullMove false right after a null move, so that two are never made in a row
+     * @return the score of the position for the side to move
+     */
+    private int search(int depth, int alpha, int beta, boolean isWhite, boolean allowNullMove) {
+        int ply = board.getPly() - rootPly;
+        if (ply < PV_PLIES) {
+            pvLengths[ply] = 0;
+        }
+
+        // Base case - end of search, where only captures are followed until the position is quiet
+        if (depth <= 0) {
+            return quiesce(alpha, beta, isWhite);
+        }
+
+        // Out of time (the result is then discarded)
+        if (isStopped()) {
+            return evaluate(isWhite);
+        }
+
+        // Use a stored result of this position if it was searched deeply enough, except on the principal
+        // variation, whose line would be cut short
+        boolean pvNode = beta - alpha > NULL_WINDOW;
+        long key = board.getZobristKey();
+        long entry = transpositionTable.probe(key);
+        if (!pvNode && entry != 0 && TranspositionTable.depth(entry) >= depth) {
+            int storedScore = fromTableScore(TranspositionTable.score(entry), ply);
+            int bound = TranspositionTable.bound(entry);
+            if (bound == TranspositionTable.EXACT ||
+                    bound == TranspositionTable.LOWER && storedScore >= beta ||
+                    bound == TranspositionTable.UPPER && storedScore <= alpha) {
+                return storedScore;
+            }
+        }
+
+        // Selective search away from the principal variation, where only the side of beta matters
+        boolean inCheck = board.isInCheck(isWhite);
+        boolean selective = !pvNode && !inCheck;
+        int staticScore = selective ? evaluate(isWhite) : 0;
+
+        // Futility pruning, from above: far over beta near the leaves, the opponent will avoid this position
+        if (selective && futilityPruning && depth <= FUTILITY_DEPTH && staticScore - FUTILITY_MARGIN * depth >= beta) {
+            return staticScore;
+        }
+
+        // Razoring: far under alpha near the leaves, only a capture could help, which quiescence search checks
+        if (selective && razoring && depth <= RAZOR_DEPTH && staticScore + RAZOR_MARGIN * depth <= alpha) {
+            int razorScore = quiesce(alpha, beta, isWhite);
+            if (razorScore <= alpha) {
+                return razorScore;
+            }
+        }
+
+        // Null-move pruning: if passing still holds beta against a reduced search, a real move will too. A side
+        // with only pawns and a king may be in zugzwang, where passing would be better than any move
+        if (selective && nullMovePruning && allowNullMove && depth >= NULL_MOVE_MIN_DEPTH && staticScore >= beta &&
+                board.getPieceCount(isWhite) > board.countPieces(Piece.PAWN, isWhite) + board.countPieces(Piece.KING, isWhite)) {
+            int reduction = depth > 6 ? 3 : 2;
+            board.makeNullMove();
+            int nullScore = -search(depth - 1 - reduction, -beta, -beta + NULL_WINDOW, !isWhite, false);
+            board.unmakeNullMove();
+            if (stopped) {
+                return nullScore;
+            }
+            if (nullScore >= beta) {
+                return nullScore;
+            }
+        }
+
+        // Base case - end of game, found only here when the move list comes out empty, so that no other node
+        // pays for it: checkmate if in check, otherwise stalemate, which is a draw
+        MoveList allMoves = generateMoves(isWhite);
+        if (allMoves.size() == 0) {
+            return inCheck ? -(MATE - ply) : 0;
         }
+        // The transposition table's move first, then the others picked one at a time as they are needed
+        moveOrdering.scoreMoves(allMoves, board.getPly(), TranspositionTable.move(entry));
 
-        double maxScore = Double.NEGATIVE_INFINITY;
-        List<int[]> allMoves = board.getAllMovesForColor(isWhite);
+        // Futility pruning, from below: far under alpha near the leaves, quiet moves cannot catch up
+        boolean futile = selective && futilityPruning && depth <= FUTILITY_DEPTH && staticScore + FUTILITY_MARGIN * depth <= alpha;
+
+        int alphaOriginal = alpha;
+        int maxScore = -INFINITY;
+        int bestMove = Move.NONE;
+
+        for (int i = 0; i < allMoves.size(); i++) {
+            int move = moveOrdering.next(allMoves, i);
+            boolean quiet = !Move.isCapture(move) && !Move.isPromotion(move);
 
-        for (int[] move : allMoves) {
             // Simulate move
-            Piece capturedPiece = board.movePiece(move[0], move[1], move[2], move[3]);
+            board.makeMove(move);
+            boolean givesCheck = board.isInCheck(!isWhite);
+            if (futile && i > 0 && quiet && !givesCheck) {
+                board.unmakeMove();
+                continue;
+            }
 
-            // Calculate move score using min-max
-            double moveScore = minValue(depth - 1, alpha, beta, !isWhite);
+            // Calculate move score: the first move with the full window, the others with a null window,
+            // reduced if they are quiet and late in the ordering, and searched again if they beat alpha
+            int moveScore;
+            if (i == 0) {
+                moveScore = -search(depth - 1, -beta, -alpha, !isWhite, true);
+            } else {
+                int reduction = 0;
+                if (lateMoveReductions && depth >= LMR_MIN_DEPTH && i >= LMR_MIN_MOVES && quiet && !inCheck && !givesCheck &&
+                        move != moveOrdering.getKiller(board.getPly() - 1, 0) && move != moveOrdering.getKiller(board.getPly() - 1, 1)) {
+                    reduction = Math.min(i >= 4 * LMR_MIN_MOVES ? 2 : 1, depth - 2);
+                }
+                moveScore = -search(depth - 1 - reduction, -alpha - NULL_WINDOW, -alpha, !isWhite, true);
+                if (moveScore > alpha && reduction > 0) {
+                    moveScore = -search(depth - 1, -alpha - NULL_WINDOW, -alpha, !isWhite, true);
+                }
+                if (moveScore > alpha && moveScore < beta) {
+                    moveScore = -search(depth - 1, -beta, -alpha, !isWhite, true);
+                }
+            }
 
             // Revert the move
-            board.movePiece(move[2], move[3], move[0], move[1]);
-            if (capturedPiece != null) {
-                board.setPiece(move[2], move[3], capturedPiece);
-            }
+            board.unmakeMove();
 
-            maxScore = Math.max(maxScore, moveScore);
-            alpha = Math.max(alpha, maxScore);
+            if (moveScore > maxScore) {
+                maxScore = moveScore;
+                bestMove = move;
+                if (moveScore > alpha) {
+                    alpha = moveScore;
+                    if (ply < PV_PLIES) {
+                        updatePrincipalVariation(ply, move);
+                    }
+                }
+            }
 
             if (alpha >= beta) {
+                moveOrdering.recordCutoff(move, board.getPly(), depth);
                 break;
             }
         }
 
+        // A stopped search has not finished this position, so it must not be stored
+        if (stopped) {
+            return maxScore;
+        }
+        int bound = maxScore >= beta ? TranspositionTable.LOWER
+                  : maxScore <= alphaOriginal ? TranspositionTable.UPPER : TranspositionTable.EXACT;
+        transpositionTable.store(key, depth, bound, toTableScore(maxScore, ply), bestMove);
         return maxScore;
     }
 
     /**
-     * Finds the minimum score for the current board state using a min-max algorithm with alpha-beta pruning.
-     * 
-     * @param depth the current depth of the search tree
-     * @param alpha the alpha value for alpha-beta pruning
-     * @param beta the beta value for alpha-beta pruning
-     * @param isWhite a boolean indicating whether it is white's turn to move
-     * @return the minimum score for the current board state
+     * Records a move as the best one found at a ply, followed by the best line found one ply further down.
+     *
+     * @param ply the ply of the move, counted from the root, less than the length of the table
+     * @param move the packed move
      */
-    private double minValue(int depth, double alpha, double beta, boolean isWhite) {
-        // Base case - end of game
-        if (depth == 0 || board.isCheckmate(isWhite)) {
-            return board.evaluateBoard(!isWhite);
-        }
+    private void updatePrincipalVariation(int ply, int move) {
+        int next = ply + 1;
+        int length = next < PV_PLIES ? Math.min(pvLengths[next], PV_PLIES - next) : 0;
+        updatePrincipalVariation(ply, move, pvMoves, next * PV_PLIES, length);
+    }
 
-        double minScore = Double.POSITIVE_INFINITY;
-        List<int[]> allMoves = board.getAllMovesForColor(isWhite);
+    /**
+     * Records a move as the best one found at a ply, followed by the given line, such as the one a pool
+     * thread found below a root move of a split search.
+     *
+     * @param ply the ply of the move, counted from the root, less than the length of the table
+     * @param move the packed move
+     * @param line the array holding the line below the move
+     * @param offset the index of the line's first move in the array
+     * @param length the number of moves in the line, at most the room left in the table's row
+     */
+    private void updatePrincipalVariation(int ply, int move, int[] line, int offset, int length) {
+        pvMoves[ply * PV_PLIES] = move;
+        System.arraycopy(line, offset, pvMoves, ply * PV_PLIES + 1, length);
+        pvLengths[ply] = length + 1;
+    }
 
-        for (int[] move : allMoves) {
-            // Simulate move
-            Piece capturedPiece = board.movePiece(move[0], move[1], move[2], move[3]);
+    /**
+     * Searches only captures and promotions from a position until it is quiet, so that the search does not
+     * stop halfway through an exchange. The side to move may instead "stand pat" and keep the static
+     * evaluation, since it is never forced to capture; captures that could not bring the score up to alpha
+     * even if the captured piece were won for free are skipped (delta pruning), and so are captures that lose
+     * material by static exchange evaluation.
+     *
+     * @param alpha the score the side to move already has elsewhere
+     * @param beta the score above which the opponent avoids this position
+     * @param isWhite true if white is to move, false otherwise
+     * @return the score of the position for the side to move
+     */
+    private int quiesce(int alpha, int beta, boolean isWhite) {
+        int standPat = evaluate(isWhite);
+        if (isStopped() || standPat >= beta || board.getPly() >= Board.MAX_PLY - 1) {
+            return standPat;
+        }
+        alpha = Math.max(alpha, standPat);
 
-            // Calculate move score using min-max
-            double moveScore = maxValue(depth - 1, alpha, beta, !isWhite);
+        MoveList captures = generateCaptures(isWhite);
+        moveOrdering.scoreMoves(captures, board.getPly(), Move.NONE);
+        int maxScore = standPat;
 
-            // Revert the move
-            board.movePiece(move[2], move[3], move[0], move[1]);
-            if (capturedPiece != null) {
-                board.setPiece(move[2], move[3], capturedPiece);
+        for (int i = 0; i < captures.size(); i++) {
+            int move = moveOrdering.next(captures, i);
+            // Losing captures, found by the exchange evaluation made while scoring, come last
+            if (MoveOrdering.isLosingScore(captures.getScore(i))) {
+                break;
+            }
+            int gain = Move.isCapture(move) ? Evaluation.material(Move.captured(move)) : 0;
+            if (Move.isPromotion(move)) {
+                gain += Evaluation.material(Piece.QUEEN) - Evaluation.material(Piece.PAWN);
+            }
+            if (standPat + gain + DELTA_MARGIN <= alpha) {
+                continue;
             }
 
-            minScore = Math.min(minScore, moveScore);
-            beta = Math.min(beta, minScore);
+            board.makeMove(move);
+            int moveScore = -quiesce(-beta, -alpha, !isWhite);
+            board.unmakeMove();
 
+            if (moveScore > maxScore) {
+                maxScore = moveScore;
+            }
+            alpha = Math.max(alpha, maxScore);
             if (alpha >= beta) {
                 break;
             }
         }
+        return maxScore;
+    }
 
-        return minScore;
+    /**
+     * Evaluates the current position for the side to move, looking it up in the evaluation cache first. A
+     * position not in the cache is scored by the board's running evaluation plus its pawn structure, which
+     * is looked up in the pawn hash table in turn.
+     *
+     * @param isWhite true if white is to move, false otherwise
+     * @return the score of the position in centipawns, from the side to move's point of view
+     */
+    private int evaluate(boolean isWhite) {
+        long key = board.getZobristKey();
+        int score = evaluationCache.probe(key);
+        if (score == EvaluationCache.MISSING) {
+            long pawnKey = board.getPawnKey();
+            int pawnScore = pawnCache.probe(pawnKey);
+            if (pawnScore == EvaluationCache.MISSING) {
+                pawnScore = Evaluation.pawnStructure(board);
+                pawnCache.store(pawnKey, pawnScore);
+            }
+            score = board.evaluate(true) + pawnScore;
+            evaluationCache.store(key, score);
+        }
+        return isWhite ? score : -score;
     }
-}
 
+    /**
+     * Moves a move to the front of the move list so that it is searched first, keeping the order of the rest.
+     *
+     * @param moves the generated moves of the position
+     * @param bestMove the move to search first, matched on its source and destination squares (the low 16
+     *                 bits, as kept in the transposition table), or 0 for none
+     */
+    private static void moveToFront(MoveList moves, int bestMove) {
+        int squares = bestMove & 0xFFFF;
+        if (squares == 0) {
+            return;
+        }
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if ((move & 0xFFFF) == squares) {
+                // Shift the moves before it along by one to keep their relative order
+                for (int j = i; j > 0; j--) {
+                    moves.set(j, moves.get(j - 1));
+                }
+                moves.set(0, move);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Converts a score to the form kept in the transposition table, where a mate score counts the plies from
+     * the stored position rather than from the root, so that it stays right when the position is reached at
+     * another ply.
+     *
+     * @param score the score as returned by the search
+     * @param ply the ply of the position, counted from the root
+     * @return the score to store
+     */
+    private static int toTableScore(int score, int ply) {
+        return score > MATE_BOUND ? score + ply : score < -MATE_BOUND ? score - ply : score;
+    }
+
+    /**
+     * Converts a score read from the transposition table back to one counted from the root.
+     *
+     * @param score the stored score
+     * @param ply the ply of the position, counted from the root
+     * @return the score for the search
+     */
+    private static int fromTableScore(int score, int ply) {
+        return score > MATE_BOUND ? score - ply : score < -MATE_BOUND ? score + ply : score;
+    }
+
+    /**
+     * Generates the legal moves of the given color into the move list reserved for the current ply.
+     *
+     * @param isWhite the color to generate moves for
+     * @return the filled move list, valid until another position at the same ply is generated
+     */
+    private MoveList generateMoves(boolean isWhite) {
+        int ply = board.getPly();
+        MoveList moves = moveLists[ply];
+        if (moves == null) {
+            moves = new MoveList();
+            moveLists[ply] = moves;
+        }
+        moves.clear();
+        board.generateLegalMoves(isWhite, moves);
+        return moves;
+    }
+
+    /**
+     * Generates the legal captures and promotions of the given color into the move list of the current ply.
+     *
+     * @param isWhite the color to move
+     * @return the move list, valid until another position at the same ply is searched
+     */
+    private MoveList generateCaptures(boolean isWhite) {
+        int ply = board.getPly();
+        MoveList moves = moveLists[ply];
+        if (moves == null) {
+            moves = new MoveList();
+            moveLists[ply] = moves;
+        }
+        moves.clear();
+        board.generateLegalCaptures(isWhite, moves);
+        return moves;
+    }
+
+    /**
+     * Measures the time to reach a fixed depth from a position with 1, 2, 4, ... threads up to the given
+     * number, printing the speedup of each over a single thread. Every timed run starts from an empty table.
+     * The threads either run Lazy SMP helpers ({@code smp}) or split the root moves ({@code split}).
+     *
+     * @param args the depth (default 4), the largest number of threads (default: the number of processors),
+     *             the level file (default {@code src/main/level.txt}) and the mode (default {@code smp})
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String fileName = args.length > 2 ? args[2] : "src/main/level.txt";
+        boolean split = args.length > 3 && args[3].equals("split");
+
+        Board board = new Board();
+        board.loadBoardFromTextFile(fileName);
+        // One untimed search first, so that the single-threaded run is not the one paying for class loading
+        // and compilation
+        new MinMaxAI(board, depth, board.isWhiteToMove()).getBestMove();
+        double singleThreadSeconds = 0;
+        for (int threads = 1; threads <= maxThreads; threads = threads == maxThreads ? threads + 1 : Math.min(threads * 2, maxThreads)) {
+            MinMaxAI ai = new MinMaxAI(board, depth, board.isWhiteToMove(), new TranspositionTable(TranspositionTable.DEFAULT_MEGABYTES));
+            ForkJoinPool rootPool = split && threads > 1 ? new ForkJoinPool(threads) : null;
+            ExecutorService helperPool = !split && threads > 1 ? Executors.newFixedThreadPool(threads - 1) : null;
+            if (split) {
+                ai.setRootPool(rootPool);
+            } else {
+                ai.setHelpers(threads - 1, helperPool);
+            }
+            long start = System.nanoTime();
+            int[] move = ai.getBestMove();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            if (rootPool != null) {
+                rootPool.shutdown();
+            }
+            if (helperPool != null) {
+                helperPool.shutdown();
+            }
+            if (threads == 1) {
+                singleThreadSeconds = seconds;
+            }
+            System.out.printf("%2d threads: depth %d in %.3f s, %d nodes, move %d,%d-%d,%d, speedup %.2f, " +
+                              "evaluation cache hits %.0f%%, pawn hash hits %.0f%%%n", threads, depth, seconds, ai.getNodes(),
+                              move[0], move[1], move[2], move[3], singleThreadSeconds / seconds,
+                              hitRate(ai.getEvaluationCache()), hitRate(ai.getPawnCache()));
+        }
+    }
+
+    /**
+     * Returns the share of a cache's lookups that found their key.
+     *
+     * @param cache the cache
+     * @return the hit rate in percent, 0 if there were no lookups
+     */
+    private static double hitRate(EvaluationCache cache) {
+        long lookups = cache.getHits() + cache.getMisses();
+        return lookups == 0 ? 0.0 : 100.0 * cache.getHits() / lookups;
+    }
+}
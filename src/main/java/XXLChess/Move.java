@@ -0,0 +1,139 @@
+package XXLChess;
+
+/**
+ * Static helpers for moves packed into a single int.
+ *
+ * Bits 0-7 hold the source square, bits 8-15 the destination square, bits 16-19 the type of the moving
+ * piece, bits 20-23 the type of the captured piece ({@link #NO_CAPTURE} for a quiet move) and bit 24 is set
+ * when a pawn promotes. Squares are numbered {@code row * Board.SIZE + col}. A real move always has
+ * different source and destination squares, so {@link #NONE} never collides with one.
+ */
+public final class Move {
+    /** Value used where no move is available. */
+    public static final int NONE = 0;
+
+    /** Captured-type field of a move that captures nothing. */
+    public static final int NO_CAPTURE = 0xF;
+
+    private static final int PROMOTION_FLAG = 1 << 24;
+
+    private Move() {
+    }
+
+    /**
+     * Packs a move into an int.
+     *
+     * @param from the source square
+     * @param to the destination square
+     * @param piece the type code of the moving piece
+     * @param captured the type code of the captured piece, or {@link #NO_CAPTURE}
+     * @param promotion true if the move promotes a pawn
+     * @return the packed move
+     */
+    public static int encode(int from, int to, int piece, int captured, boolean promotion) {
+        return from | to << 8 | piece << 16 | captured << 20 | (promotion ? PROMOTION_FLAG : 0);
+    }
+
+    /**
+     * Returns the source square of a move.
+     *
+     * @param move the packed move
+     * @return the source square
+     */
+    public static int from(int move) {
+        return move & 0xFF;
+    }
+
+    /**
+     * Returns the destination square of a move.
+     *
+     * @param move the packed move
+     * @return the destination square
+     */
+    public static int to(int move) {
+        return (move >>> 8) & 0xFF;
+    }
+
+    /**
+     * Returns the type code of the moving piece.
+     *
+     * @param move the packed move
+     * @return the type of the piece that moves
+     */
+    public static int piece(int move) {
+        return (move >>> 16) & 0xF;
+    }
+
+    /**
+     * Returns the type code of the captured piece.
+     *
+     * @param move the packed move
+     * @return the captured type, or {@link #NO_CAPTURE}
+     */
+    public static int captured(int move) {
+        return (move >>> 20) & 0xF;
+    }
+
+    /**
+     * Checks whether a move captures a piece.
+     *
+     * @param move the packed move
+     * @return true if the move is a capture, false otherwise
+     */
+    public static boolean isCapture(int move) {
+        return captured(move) != NO_CAPTURE;
+    }
+
+    /**
+     * Checks whether a move promotes a pawn.
+     *
+     * @param move the packed move
+     * @return true if the move is a promotion, false otherwise
+     */
+    public static boolean isPromotion(int move) {
+        return (move & PROMOTION_FLAG) != 0;
+    }
+
+    /**
+     * Returns the move in the {@code [startRow, startCol, endRow, endCol]} form used by App.
+     *
+     * @param move the packed move
+     * @return a new array with the source and destination coordinates
+     */
+    public static int[] toArray(int move) {
+        return new int[]{Board.rowOf(from(move)), Board.colOf(from(move)), Board.rowOf(to(move)), Board.colOf(to(move))};
+    }
+
+    /**
+     * Returns a readable form of a move using files a-n and ranks 1-14 counted from white's side, for
+     * example {@code h2h4} or {@code d13xd12=Q}.
+     *
+     * @param move the packed move
+     * @return the move as text
+     */
+    public static String toString(int move) {
+        if (move == NONE) {
+            return "none";
+        }
+        StringBuilder text = new StringBuilder();
+        appendSquare(text, from(move));
+        if (isCapture(move)) {
+            text.append('x');
+        }
+        appendSquare(text, to(move));
+        if (isPromotion(move)) {
+            text.append("=Q");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Appends the name of a square to a string builder.
+     *
+     * @param text the builder to append to
+     * @param square the square index
+     */
+    private static void appendSquare(StringBuilder text, int square) {
+        text.append((char) ('a' + Board.colOf(square))).append(Board.SIZE - Board.rowOf(square));
+    }
+}
@@ -0,0 +1,116 @@
+package XXLChess;
+
+import java.util.Arrays;
+
+/**
+ * A reusable list of packed moves (see {@link Move}), each with an ordering score (see {@link MoveOrdering}).
+ * Searches keep one list per ply and clear it instead of allocating a new collection for every position.
+ */
+public class MoveList {
+    private static final int DEFAULT_CAPACITY = 256;
+
+    private int[] moves;
+    private int[] scores;
+    private int size;
+
+    /**
+     * Creates an empty move list with room for a typical position's moves.
+     */
+    public MoveList() {
+        moves = new int[DEFAULT_CAPACITY];
+        scores = new int[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Appends a move, growing the buffer in the rare case a position has more moves than it holds.
+     *
+     * @param move the packed move to add
+     */
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+            scores = Arrays.copyOf(scores, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * Returns the move at the given index.
+     *
+     * @param index the index of the move, from 0 to {@code size() - 1}
+     * @return the packed move
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Replaces the move at the given index.
+     *
+     * @param index the index of the move, from 0 to {@code size() - 1}
+     * @param move the packed move to store
+     */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * Returns the ordering score last stored for the move at the given index.
+     *
+     * @param index the index of the move, from 0 to {@code size() - 1}
+     * @return the score, meaningful only once one has been stored for the move
+     */
+    public int getScore(int index) {
+        return scores[index];
+    }
+
+    /**
+     * Stores the ordering score of the move at the given index.
+     *
+     * @param index the index of the move, from 0 to {@code size() - 1}
+     * @param score the score
+     */
+    public void setScore(int index, int score) {
+        scores[index] = score;
+    }
+
+    /**
+     * Returns the number of moves in the list.
+     *
+     * @return the number of moves
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Drops the moves from the given index on, so that moves filtered in place can be cut off the end.
+     *
+     * @param size the new size, at most {@code size()}
+     */
+    public void truncate(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Empties the list while keeping its buffer.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Checks whether the list contains the given move.
+     *
+     * @param move the packed move to look for
+     * @return true if the move is in the list, false otherwise
+     */
+    public boolean contains(int move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,253 @@
+package XXLChess;
+
+import java.util.Arrays;
+
+/**
+ * Orders moves so that alpha-beta search tries the likely best ones first.
+ *
+ * Captures and promotions come first, the most valuable victim before the least, and among equal victims
+ * the least valuable attacker first (MVV-LVA). They are followed by the two killer moves of the ply, quiet
+ * moves that recently caused a cutoff in a sibling position, and then by the other quiet moves in order of
+ * their history score, which grows every time a move from the same square to the same square causes a
+ * cutoff. When the ordering knows the board, captures that lose material by static exchange evaluation go
+ * last. Moves with equal scores keep their generation order.
+ *
+ * A search scores all the moves of a position once with {@link #scoreMoves} and then picks them one at a
+ * time with {@link #next}, so that a position cut off after a few moves does not pay for sorting the rest.
+ */
+public class MoveOrdering {
+    private static final int HASH_MOVE_SCORE = Integer.MAX_VALUE;
+    private static final int CAPTURE_SCORE = 1 << 30;
+    private static final int KILLER_SCORE = 1 << 29;
+    private static final int LOSING_CAPTURE_SCORE = -(1 << 29);
+    private static final int HISTORY_LIMIT = 1 << 20;
+    private static final int KILLERS_PER_PLY = 2;
+
+    // The rank of each piece type when ordered by getPieceValue, so that the victim and attacker values fit
+    // in a few bits; the Pawn ranks lowest and the King highest
+    private static final int[] VALUE_RANKS = new int[Piece.TYPE_COUNT];
+
+    static {
+        for (int type = 0; type < Piece.TYPE_COUNT; type++) {
+            double value = Piece.definition(type, true).getPieceValue();
+            for (int other = 0; other < Piece.TYPE_COUNT; other++) {
+                if (Piece.definition(other, true).getPieceValue() < value) {
+                    VALUE_RANKS[type]++;
+                }
+            }
+        }
+    }
+
+    private final int[] killers = new int[KILLERS_PER_PLY * (Board.MAX_PLY + 1)];
+    private final int[] history = new int[Board.SQUARES * Board.SQUARES];
+    private final Board board;
+
+    /**
+     * Creates a move ordering that ranks captures by MVV-LVA alone.
+     */
+    public MoveOrdering() {
+        this(null);
+    }
+
+    /**
+     * Creates a move ordering that also checks captures on the given board by static exchange evaluation.
+     *
+     * @param board the board whose moves are ordered, or null to skip the exchange evaluation
+     */
+    public MoveOrdering(Board board) {
+        this.board = board;
+    }
+
+    /**
+     * Returns the rank of a piece type among all types by value, from 0 for the Pawn up.
+     *
+     * @param type the piece type code
+     * @return the number of types worth less than this one
+     */
+    public static int valueRank(int type) {
+        return VALUE_RANKS[type];
+    }
+
+    /**
+     * Sorts a list of moves from the most to the least promising, keeping the order of moves that score the
+     * same. Searches that may stop after a few moves should use {@link #scoreMoves} and {@link #next} instead.
+     *
+     * @param moves the moves to sort in place
+     * @param ply the distance of the position from the start of the game, which selects the killer moves
+     */
+    public void order(MoveList moves, int ply) {
+        scoreMoves(moves, ply, Move.NONE);
+        for (int i = 0; i < moves.size(); i++) {
+            next(moves, i);
+        }
+    }
+
+    /**
+     * Stores the ordering score of every move in the list, for {@link #next} to pick the moves by.
+     *
+     * @param moves the moves to score
+     * @param ply the distance of the position from the start of the game, which selects the killer moves
+     * @param hashMove a move to score above all others, matched on its source and destination squares (the
+     *                 low 16 bits, as kept in the transposition table), or {@link Move#NONE} for none
+     */
+    public void scoreMoves(MoveList moves, int ply, int hashMove) {
+        int hashSquares = hashMove & 0xFFFF;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            moves.setScore(i, hashSquares != 0 && (move & 0xFFFF) == hashSquares ? HASH_MOVE_SCORE : score(move, ply));
+        }
+    }
+
+    /**
+     * Picks the most promising of the moves from the given index on, as scored by {@link #scoreMoves}, and
+     * puts it at that index. The moves passed over are shifted along by one rather than swapped, so that moves
+     * with equal scores keep their order. Calling this for indexes 0, 1, 2 and so on visits the moves in the
+     * order {@link #order} sorts them into.
+     *
+     * @param moves the scored moves, of which those before the index have already been picked
+     * @param index the index to pick a move for, from 0 to {@code moves.size() - 1}
+     * @return the picked move
+     */
+    public int next(MoveList moves, int index) {
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (moves.getScore(i) > moves.getScore(best)) {
+                best = i;
+            }
+        }
+        int move = moves.get(best);
+        int score = moves.getScore(best);
+        for (int i = best; i > index; i--) {
+            moves.set(i, moves.get(i - 1));
+            moves.setScore(i, moves.getScore(i - 1));
+        }
+        moves.set(index, move);
+        moves.setScore(index, score);
+        return move;
+    }
+
+    /**
+     * Returns the ordering score of a move; higher scores are searched first.
+     *
+     * @param move the packed move
+     * @param ply the distance of the position from the start of the game
+     * @return the score of the move
+     */
+    public int score(int move, int ply) {
+        if (Move.isCapture(move) || Move.isPromotion(move)) {
+            int victim = Move.isCapture(move) ? VALUE_RANKS[Move.captured(move)] + 1 : 0;
+            if (Move.isPromotion(move)) {
+                victim += VALUE_RANKS[Piece.QUEEN];
+            }
+            int mvvLva = victim * Piece.TYPE_COUNT + Piece.TYPE_COUNT - 1 - VALUE_RANKS[Move.piece(move)];
+            return (isLosingCapture(move) ? LOSING_CAPTURE_SCORE : CAPTURE_SCORE) + mvvLva;
+        }
+        int slot = killerSlot(ply);
+        if (move == killers[slot]) {
+            return KILLER_SCORE + 1;
+        }
+        if (move == killers[slot + 1]) {
+            return KILLER_SCORE;
+        }
+        return history[Move.from(move) * Board.SQUARES + Move.to(move)];
+    }
+
+    /**
+     * Checks whether a capture loses material once all recaptures on its square have been played out. A
+     * capture of a piece worth at least as much as the capturing one never does, so the exchange is only
+     * evaluated for the others, and only when the ordering knows the board.
+     *
+     * @param move the packed move
+     * @return true if the move is a capture with a negative static exchange evaluation, false otherwise
+     */
+    public boolean isLosingCapture(int move) {
+        return board != null && Move.isCapture(move) &&
+               VALUE_RANKS[Move.captured(move)] < VALUE_RANKS[Move.piece(move)] && board.staticExchange(move) < 0;
+    }
+
+    /**
+     * Checks whether a score given by {@link #score} or {@link #scoreMoves} marks a capture that loses
+     * material, so that a search can skip it without evaluating the exchange again. Every other move scores
+     * 0 or more.
+     *
+     * @param score the ordering score of a move
+     * @return true if the move is a losing capture, false otherwise
+     */
+    public static boolean isLosingScore(int score) {
+        return score < 0;
+    }
+
+    /**
+     * Records a quiet move that caused a beta cutoff: it becomes the first killer move of its ply and its
+     * history score grows with the square of the remaining depth, since cutoffs near the root save more.
+     * Captures and promotions are already searched early and are ignored.
+     *
+     * @param move the packed move
+     * @param ply the distance of the position from the start of the game
+     * @param depth the depth that was left to search at the position
+     */
+    public void recordCutoff(int move, int ply, int depth) {
+        if (Move.isCapture(move) || Move.isPromotion(move)) {
+            return;
+        }
+        int slot = killerSlot(ply);
+        if (killers[slot] != move) {
+            killers[slot + 1] = killers[slot];
+            killers[slot] = move;
+        }
+        int index = Move.from(move) * Board.SQUARES + Move.to(move);
+        history[index] += depth * depth;
+        if (history[index] > HISTORY_LIMIT) {
+            age();
+        }
+    }
+
+    /**
+     * Returns one of the killer moves of a ply.
+     *
+     * @param ply the distance of the position from the start of the game
+     * @param index 0 for the most recent killer move, 1 for the one before
+     * @return the killer move, or {@link Move#NONE} if there is none
+     */
+    public int getKiller(int ply, int index) {
+        return killers[killerSlot(ply) + index];
+    }
+
+    /**
+     * Returns the history score of a move.
+     *
+     * @param move the packed move
+     * @return the history score of moves between the same two squares
+     */
+    public int getHistory(int move) {
+        return history[Move.from(move) * Board.SQUARES + Move.to(move)];
+    }
+
+    /**
+     * Halves every history score, so that recent cutoffs weigh more than old ones and scores stay below the
+     * killer moves'.
+     */
+    public void age() {
+        for (int i = 0; i < history.length; i++) {
+            history[i] >>= 1;
+        }
+    }
+
+    /**
+     * Forgets the killer moves, which belong to the positions of the previous search, and ages the history.
+     */
+    public void newSearch() {
+        Arrays.fill(killers, Move.NONE);
+        age();
+    }
+
+    /**
+     * Returns the index of the first killer move of a ply.
+     *
+     * @param ply the distance of the position from the start of the game
+     * @return the index into the killer array
+     */
+    private static int killerSlot(int ply) {
+        return KILLERS_PER_PLY * Math.min(ply, Board.MAX_PLY);
+    }
+}
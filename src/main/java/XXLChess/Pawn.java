@@ -1,12 +1,11 @@
 package XXLChess;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Represents an Pawn chess piece.
  */
 public class Pawn extends Piece {
+    // Column offsets of the two diagonal captures
+    private static final int[] CAPTURE_OFFSETS = {-1, 1};
 
     /**
      * Constructor for an Pawn piece.
@@ -22,15 +21,17 @@ public class Pawn extends Piece {
     /**
      * Checks if a move for the Pawn piece is valid.
      *
+     * @param srcRow the row position of the source square
+     * @param srcCol the column position of the source square
      * @param destRow the row position of the destination square
      * @param destCol the column position of the destination square
      * @param board the game board
      * @return true if the move is valid, false otherwise
      */
     @Override
-    public boolean isMoveValid(int destRow, int destCol, Board board) {
-        int rowDiff = Math.abs(destRow - row);
-        int colDiff = Math.abs(destCol - col);
+    public boolean isMoveValid(int srcRow, int srcCol, int destRow, int destCol, Board board) {
+        int rowDiff = Math.abs(destRow - srcRow);
+        int colDiff = Math.abs(destCol - srcCol);
 
         // Check if the destination square is occupied by a piece of the same color
         Piece destPiece = board.getPiece(destRow, destCol);
@@ -40,16 +41,16 @@ public class Pawn extends Piece {
 
         // Handle the first move of the pawn, allowing it to move two squares forward
         int initialRow = isWhite ? 12 : 1;
-        boolean isFirstMove = (row == initialRow);
+        boolean isFirstMove = (srcRow == initialRow);
         int forwardDirection = isWhite ? -1 : 1;
 
         // Check if the pawn is moving forward
-        if (col == destCol) {
+        if (srcCol == destCol) {
             if (rowDiff == 1 && board.getPiece(destRow, destCol) == null) {
                 return true;
             }
             if (isFirstMove && rowDiff == 2 && board.getPiece(destRow, destCol) == null &&
-                    board.getPiece(row + forwardDirection, col) == null) {
+                    board.getPiece(srcRow + forwardDirection, srcCol) == null) {
                 return true;
             }
         }
@@ -68,31 +69,33 @@ public class Pawn extends Piece {
     }
 
     /**
-     * Gets all valid moves for the Pawn piece on the game board.
+     * Adds all valid moves for the Pawn piece on the game board to a move list.
      *
-     * @param row the row position of the piece on the board
-     * @param col the column position of the piece on the board
+     * @param square the square of the piece
+     * @param type the type code to record as the moving piece
      * @param board the game board
-     * @return a list of int arrays representing the valid moves
+     * @param moves the list to append the packed moves to
      */
     @Override
-    public List<int[]> getValidMoves(int row, int col, Board board) {
-        List<int[]> validMoves = new ArrayList<>();
+    protected void addMoves(int square, int type, Board board, MoveList moves) {
+        int row = Board.rowOf(square);
+        int col = Board.colOf(square);
 
         int direction = isWhite ? -1 : 1;
         int newRow = row + direction;
 
         // Regular move
         if (board.isInsideBoard(newRow, col) && board.getPiece(newRow, col) == null) {
-            validMoves.add(new int[]{newRow, col});
+            addMove(square, Board.square(newRow, col), type, board, moves);
         }
 
         // Capture move
-        for (int newCol : new int[]{col - 1, col + 1}) {
+        for (int offset : CAPTURE_OFFSETS) {
+            int newCol = col + offset;
             if (board.isInsideBoard(newRow, newCol)) {
                 Piece targetPiece = board.getPiece(newRow, newCol);
                 if (targetPiece != null && targetPiece.isWhite != isWhite) {
-                    validMoves.add(new int[]{newRow, newCol});
+                    addMove(square, Board.square(newRow, newCol), type, board, moves);
                 }
             }
         }
@@ -102,11 +105,9 @@ public class Pawn extends Piece {
         if (row == initialRow && board.getPiece(newRow, col) == null) {
             newRow += direction;
             if (board.isInsideBoard(newRow, col) && board.getPiece(newRow, col) == null) {
-                validMoves.add(new int[]{newRow, col});
+                addMove(square, Board.square(newRow, col), type, board, moves);
             }
         }
-
-        return validMoves;
     }
 
     /**
@@ -116,5 +117,15 @@ public class Pawn extends Piece {
      */
     public double getPieceValue() {
         return 1.0;
-    }    
+    }
+
+    /**
+     * Gets the type code of the Pawn piece.
+     *
+     * @return {@link Piece#PAWN}
+     */
+    @Override
+    public int getType() {
+        return PAWN;
+    }
 }
@@ -0,0 +1,253 @@
+package XXLChess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth ("perft"), to check the move generators
+ * against known counts and to measure their speed.
+ *
+ * Node counts can be cached in a hash table keyed by the position's Zobrist key, so transpositions are only
+ * counted once. Entries are written as a key XORed with its data, which lets the parallel mode share one
+ * table between threads without locks: an entry torn by a concurrent write simply fails to verify.
+ *
+ * Run {@code Perft <depth> [level file] [threads] [hash MB]} to print node counts and nodes per second for
+ * every depth up to the given one.
+ */
+public class Perft {
+    private static final int ENTRY_BYTES = 16;
+
+    private final Board board;
+    private final long[] hashKeys;
+    private final long[] hashData;
+    private final int hashMask;
+
+    // One move list per ply, reused by every node counted at that ply
+    private final MoveList[] moveLists = new MoveList[Board.MAX_PLY + 1];
+
+    /**
+     * Creates a perft counter without a hash table.
+     *
+     * @param board the board to count from, which is restored after every count
+     */
+    public Perft(Board board) {
+        this(board, 0);
+    }
+
+    /**
+     * Creates a perft counter with a hash table of about the given size.
+     *
+     * @param board the board to count from, which is restored after every count
+     * @param hashMegabytes the size of the hash table in megabytes, rounded down to a power of two number of
+     *                      entries, or 0 for no table
+     */
+    public Perft(Board board, int hashMegabytes) {
+        this(board, hashMegabytes > 0 ? new long[entryCount(hashMegabytes)] : null,
+             hashMegabytes > 0 ? new long[entryCount(hashMegabytes)] : null);
+    }
+
+    /**
+     * Creates a perft counter sharing the hash table of another one.
+     *
+     * @param board the board to count from
+     * @param hashKeys the checked keys of the table, or null for no table
+     * @param hashData the node counts and depths of the table, or null for no table
+     */
+    private Perft(Board board, long[] hashKeys, long[] hashData) {
+        this.board = board;
+        this.hashKeys = hashKeys;
+        this.hashData = hashData;
+        this.hashMask = hashKeys != null ? hashKeys.length - 1 : 0;
+    }
+
+    /**
+     * Returns the number of table entries that fit in the given size, rounded down to a power of two.
+     *
+     * @param hashMegabytes the size of the table in megabytes
+     * @return the number of entries
+     */
+    private static int entryCount(int hashMegabytes) {
+        long entries = Math.max(1L, (long) hashMegabytes * 1024 * 1024 / ENTRY_BYTES);
+        return Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree below the current position.
+     *
+     * @param depth the number of plies to look ahead
+     * @return the number of positions reached after exactly {@code depth} moves
+     */
+    public long perft(int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        long key = board.getZobristKey();
+        if (hashKeys != null) {
+            int index = (int) key & hashMask;
+            long data = hashData[index];
+            if ((hashKeys[index] ^ data) == key && (data & 0xFF) == depth) {
+                return data >>> 8;
+            }
+        }
+
+        MoveList moves = generateMoves();
+        long nodes;
+        if (depth == 1) {
+            // The leaves themselves need no moves made
+            nodes = moves.size();
+        } else {
+            nodes = 0;
+            for (int i = 0; i < moves.size(); i++) {
+                board.makeMove(moves.get(i));
+                nodes += perft(depth - 1);
+                board.unmakeMove();
+            }
+        }
+
+        if (hashKeys != null) {
+            int index = (int) key & hashMask;
+            long data = nodes << 8 | depth;
+            hashData[index] = data;
+            hashKeys[index] = key ^ data;
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the leaf nodes below each legal move of the current position, which pinpoints the move whose
+     * subtree differs when a count is wrong.
+     *
+     * @param depth the number of plies to look ahead, at least 1
+     * @return the node count below each root move, in generation order
+     */
+    public Map<Integer, Long> divide(int depth) {
+        Map<Integer, Long> counts = new LinkedHashMap<>();
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(board.isWhiteToMove(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            counts.put(moves.get(i), perft(depth - 1));
+            board.unmakeMove();
+        }
+        return counts;
+    }
+
+    /**
+     * Counts the leaf nodes like {@link #perft}, splitting the root moves across the threads of a fork-join
+     * pool. Every root move is counted on its own copy of the board, and all of them share this counter's
+     * hash table.
+     *
+     * @param depth the number of plies to look ahead
+     * @param pool the pool to run the root moves in
+     * @return the number of positions reached after exactly {@code depth} moves
+     */
+    public long parallelPerft(int depth, ForkJoinPool pool) {
+        if (depth <= 1) {
+            return perft(depth);
+        }
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(board.isWhiteToMove(), moves);
+        RootMoveTask[] tasks = new RootMoveTask[moves.size()];
+        for (int i = 0; i < tasks.length; i++) {
+            // Copies are made here, while nothing is changing the board
+            tasks[i] = new RootMoveTask(new Perft(new Board(board), hashKeys, hashData), moves.get(i), depth - 1);
+        }
+        return pool.invoke(new RecursiveTask<Long>() {
+            @Override
+            protected Long compute() {
+                invokeAll(tasks);
+                long nodes = 0;
+                for (RootMoveTask task : tasks) {
+                    nodes += task.join();
+                }
+                return nodes;
+            }
+        });
+    }
+
+    /**
+     * Generates the legal moves of the side to move into the move list reserved for the current ply.
+     *
+     * @return the filled move list
+     */
+    private MoveList generateMoves() {
+        int ply = board.getPly();
+        MoveList moves = moveLists[ply];
+        if (moves == null) {
+            moves = new MoveList();
+            moveLists[ply] = moves;
+        }
+        moves.clear();
+        board.generateLegalMoves(board.isWhiteToMove(), moves);
+        return moves;
+    }
+
+    /**
+     * Counts the subtree of one root move on a counter with its own board.
+     */
+    private static class RootMoveTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Perft perft;
+        private final int move;
+        private final int depth;
+
+        /**
+         * Creates a task for one root move.
+         *
+         * @param perft the counter, whose board is a private copy of the root position
+         * @param move the root move to make first
+         * @param depth the depth left below the root move
+         */
+        RootMoveTask(Perft perft, int move, int depth) {
+            this.perft = perft;
+            this.move = move;
+            this.depth = depth;
+        }
+
+        /**
+         * Makes the root move and counts the nodes below it.
+         *
+         * @return the number of leaf nodes below the root move
+         */
+        @Override
+        protected Long compute() {
+            perft.board.makeMove(move);
+            long nodes = perft.perft(depth);
+            perft.board.unmakeMove();
+            return nodes;
+        }
+    }
+
+    /**
+     * Prints perft counts, times and nodes per second for each depth up to the one given.
+     *
+     * @param args the maximum depth, then optionally the level file (default {@code src/main/level.txt}), the
+     *             number of threads (default 1) and the hash size in megabytes (default 0)
+     */
+    public static void main(String[] args) {
+        int maxDepth = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        String fileName = args.length > 1 ? args[1] : "src/main/level.txt";
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        int hashMegabytes = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+
+        Board board = new Board();
+        board.loadBoardFromTextFile(fileName);
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+            // A fresh table per depth, so each line measures the generators rather than earlier results
+            Perft perft = new Perft(board, hashMegabytes);
+            long start = System.nanoTime();
+            long nodes = pool != null ? perft.parallelPerft(depth, pool) : perft.perft(depth);
+            long nanos = Math.max(1L, System.nanoTime() - start);
+            System.out.printf("perft(%d) = %d in %.3f s, %.0f nodes/s%n", depth, nodes, nanos / 1e9, nodes * 1e9 / nanos);
+        }
+
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+}
@@ -1,8 +1,23 @@
 package XXLChess;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public abstract class Piece {
+    // Piece type codes, in the same order as the piece images loaded by App
+    public static final int PAWN = 0;
+    public static final int ROOK = 1;
+    public static final int KNIGHT = 2;
+    public static final int BISHOP = 3;
+    public static final int ARCHBISHOP = 4;
+    public static final int CAMEL = 5;
+    public static final int GUARD = 6;
+    public static final int AMAZON = 7;
+    public static final int KING = 8;
+    public static final int CHANCELLOR = 9;
+    public static final int QUEEN = 10;
+    public static final int TYPE_COUNT = 11;
+
     protected int row;
     protected int col;
     protected boolean isWhite;
@@ -22,24 +37,237 @@ public abstract class Piece {
     }
 
     /**
-     * Checks if a move to the specified destination row and column is valid for the piece on the specified row and column.
+     * Returns the shared instance that provides the moves of the given piece type and color. Definitions are
+     * never placed on a board: their own position and moved flag are unused, and every method that needs a
+     * position takes it from the caller. This lets the board and compound pieces reuse piece behaviour
+     * without allocating a new piece for every query.
+     *
+     * @param type the piece type code
+     * @param isWhite the color of the piece
+     * @return the shared definition of that piece
+     */
+    public static Piece definition(int type, boolean isWhite) {
+        return Definitions.PIECES[Board.colorIndex(isWhite) * TYPE_COUNT + type];
+    }
+
+    /**
+     * Creates a new piece of the given type.
+     *
+     * @param type the piece type code
+     * @param row the row of the piece on the game board
+     * @param col the column of the piece on the game board
+     * @param isWhite the color of the piece, true if white, false if black
+     * @return the new piece
+     * @throws IllegalArgumentException if the type code is unknown
+     */
+    public static Piece create(int type, int row, int col, boolean isWhite) {
+        switch (type) {
+            case PAWN:
+                return new Pawn(row, col, isWhite);
+            case ROOK:
+                return new Rook(row, col, isWhite);
+            case KNIGHT:
+                return new Knight(row, col, isWhite);
+            case BISHOP:
+                return new Bishop(row, col, isWhite);
+            case ARCHBISHOP:
+                return new Archbishop(row, col, isWhite);
+            case CAMEL:
+                return new Camel(row, col, isWhite);
+            case GUARD:
+                return new Guard(row, col, isWhite);
+            case AMAZON:
+                return new Amazon(row, col, isWhite);
+            case KING:
+                return new King(row, col, isWhite);
+            case CHANCELLOR:
+                return new Chancellor(row, col, isWhite);
+            case QUEEN:
+                return new Queen(row, col, isWhite);
+            default:
+                throw new IllegalArgumentException("Unknown piece type: " + type);
+        }
+    }
+
+    /**
+     * Checks if a move to the specified destination row and column is valid for this piece, using the
+     * piece's own position.
+     *
+     * @param destRow the row of the destination square
+     * @param destCol the column of the destination square
+     * @param board the game board
+     * @return true if the move is valid, false otherwise
+     */
+    public boolean isMoveValid(int destRow, int destCol, Board board) {
+        return isMoveValid(row, col, destRow, destCol, board);
+    }
+
+    /**
+     * Checks if a move from the specified source square to the specified destination square is valid for a
+     * piece of this type and color.
      *
+     * @param srcRow the row of the source square
+     * @param srcCol the column of the source square
      * @param destRow the row of the destination square
      * @param destCol the column of the destination square
      * @param board the game board
      * @return true if the move is valid, false otherwise
      */
-    public abstract boolean isMoveValid(int destRow, int destCol, Board board);
+    public abstract boolean isMoveValid(int srcRow, int srcCol, int destRow, int destCol, Board board);
 
     /**
-     * Returns a list of valid moves for the piece on the specified row and column.
+     * Returns a list of valid moves for the piece on the specified row and column. This is a convenience
+     * wrapper around {@link #generateMoves} for callers that want coordinates rather than packed moves.
      *
      * @param row the row of the piece
      * @param col the column of the piece
      * @param board the game board
      * @return a list of int arrays representing valid moves, where each int array contains the destination row and column
      */
-    public abstract List<int[]> getValidMoves(int row, int col, Board board);
+    public List<int[]> getValidMoves(int row, int col, Board board) {
+        MoveList moves = new MoveList();
+        generateMoves(Board.square(row, col), board, moves);
+        List<int[]> validMoves = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            int to = Move.to(moves.get(i));
+            validMoves.add(new int[]{Board.rowOf(to), Board.colOf(to)});
+        }
+        return validMoves;
+    }
+
+    /**
+     * Appends the valid moves of a piece of this type and color standing on the given square to a move list.
+     *
+     * @param square the square of the piece
+     * @param board the game board
+     * @param moves the list to append the packed moves to
+     */
+    public void generateMoves(int square, Board board, MoveList moves) {
+        addMoves(square, getType(), board, moves);
+    }
+
+    /**
+     * Appends the valid moves of this piece's movement pattern from the given square, recording
+     * {@code type} as the moving piece. Compound pieces call this on the definitions they are built from
+     * so that the generated moves carry the compound piece's own type.
+     *
+     * @param square the square of the piece
+     * @param type the type code to record as the moving piece
+     * @param board the game board
+     * @param moves the list to append the packed moves to
+     */
+    protected abstract void addMoves(int square, int type, Board board, MoveList moves);
+
+    /**
+     * Appends one move to a move list, filling in the captured piece and the promotion flag from the board.
+     *
+     * @param from the source square
+     * @param to the destination square
+     * @param type the type code of the moving piece
+     * @param board the game board
+     * @param moves the list to append the packed move to
+     */
+    protected static void addMove(int from, int to, int type, Board board, MoveList moves) {
+        int captured = board.getPieceType(to);
+        boolean promotion = type == PAWN && Board.isPromotionRow(Board.rowOf(to));
+        moves.add(Move.encode(from, to, type, captured < 0 ? Move.NO_CAPTURE : captured, promotion));
+    }
+
+    /**
+     * Checks a leaper move against an attack table: the destination must be inside the board, attacked from
+     * the source square and not occupied by a piece of this color.
+     *
+     * @param table the attack table of the leaper (see {@link AttackTables})
+     * @param srcRow the row of the source square
+     * @param srcCol the column of the source square
+     * @param destRow the row of the destination square
+     * @param destCol the column of the destination square
+     * @param board the game board
+     * @return true if the move is valid, false otherwise
+     */
+    protected boolean isLeaperMoveValid(long[] table, int srcRow, int srcCol, int destRow, int destCol, Board board) {
+        if (!board.isInsideBoard(srcRow, srcCol) || !board.isInsideBoard(destRow, destCol)) {
+            return false;
+        }
+        int destSquare = Board.square(destRow, destCol);
+        return AttackTables.attacks(table, Board.square(srcRow, srcCol), destSquare) &&
+               !board.hasPieceOfColor(destSquare, isWhite);
+    }
+
+    /**
+     * Appends the moves of a leaper to a move list by looking up its attack table and skipping the squares
+     * held by pieces of this color.
+     *
+     * @param table the attack table of the leaper (see {@link AttackTables})
+     * @param square the square of the piece
+     * @param type the type code to record as the moving piece
+     * @param board the game board
+     * @param moves the list to append the packed moves to
+     */
+    protected void addLeaperMoves(long[] table, int square, int type, Board board, MoveList moves) {
+        for (int to = board.nextTarget(table, square, isWhite, 0); to >= 0; to = board.nextTarget(table, square, isWhite, to + 1)) {
+            addMove(square, to, type, board, moves);
+        }
+    }
+
+    /**
+     * Checks a sliding move: the destination must be inside the board, lie on a ray in one of the given
+     * directions, not hold a piece of this color and have no piece before it on the ray.
+     *
+     * @param directions the directions the piece slides in (see {@link AttackTables})
+     * @param srcRow the row of the source square
+     * @param srcCol the column of the source square
+     * @param destRow the row of the destination square
+     * @param destCol the column of the destination square
+     * @param board the game board
+     * @return true if the move is valid, false otherwise
+     */
+    protected boolean isSliderMoveValid(int[] directions, int srcRow, int srcCol, int destRow, int destCol, Board board) {
+        if (!board.isInsideBoard(srcRow, srcCol) || !board.isInsideBoard(destRow, destCol)) {
+            return false;
+        }
+        int srcSquare = Board.square(srcRow, srcCol);
+        int destSquare = Board.square(destRow, destCol);
+        int direction = AttackTables.direction(srcSquare, destSquare);
+        if (direction < 0 || board.hasPieceOfColor(destSquare, isWhite)) {
+            return false;
+        }
+        for (int slideDirection : directions) {
+            if (slideDirection == direction) {
+                // The path is clear if the nearest piece on the ray is the destination or beyond it
+                int blocker = board.firstBlocker(srcSquare, direction);
+                return blocker < 0 || AttackTables.distance(srcSquare, blocker) >= AttackTables.distance(srcSquare, destSquare);
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends the moves of a sliding piece to a move list. Each ray is read from the table up to its first
+     * blocker, which is added as a capture if it belongs to the other color.
+     *
+     * @param directions the directions the piece slides in (see {@link AttackTables})
+     * @param square the square of the piece
+     * @param type the type code to record as the moving piece
+     * @param board the game board
+     * @param moves the list to append the packed moves to
+     */
+    protected void addSliderMoves(int[] directions, int square, int type, Board board, MoveList moves) {
+        for (int direction : directions) {
+            int blocker = board.firstBlocker(square, direction);
+            int length = AttackTables.rayLength(square, direction);
+            for (int i = 0; i < length; i++) {
+                int to = AttackTables.raySquare(square, direction, i);
+                if (to == blocker) {
+                    if (!board.hasPieceOfColor(to, isWhite)) {
+                        addMove(square, to, type, board, moves);
+                    }
+                    break;
+                }
+                addMove(square, to, type, board, moves);
+            }
+        }
+    }
 
     /**
      * Updates the position of the game piece to the specified row and column.
@@ -72,4 +300,25 @@ public abstract class Piece {
      * @return The value of the game piece.
      */
     public abstract double getPieceValue();
-}
\ No newline at end of file
+
+    /**
+     * Returns the type code of the game piece, one of the constants declared in this class.
+     * @return The type code of the game piece.
+     */
+    public abstract int getType();
+
+    /**
+     * Holds the shared piece definitions. Kept in a nested class so that the subclasses are created only
+     * once Piece itself is fully initialised.
+     */
+    private static final class Definitions {
+        private static final Piece[] PIECES = new Piece[2 * TYPE_COUNT];
+
+        static {
+            for (int type = 0; type < TYPE_COUNT; type++) {
+                PIECES[Board.WHITE * TYPE_COUNT + type] = create(type, -1, -1, true);
+                PIECES[Board.BLACK * TYPE_COUNT + type] = create(type, -1, -1, false);
+            }
+        }
+    }
+}
@@ -1,8 +1,5 @@
 package XXLChess;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Represents an Queen chess piece.
  */
@@ -22,36 +19,31 @@ public class Queen extends Piece {
     /**
      * Checks if a move for the Queen piece is valid.
      *
+     * @param srcRow the row position of the source square
+     * @param srcCol the column position of the source square
      * @param destRow the row position of the destination square
      * @param destCol the column position of the destination square
      * @param board the game board
      * @return true if the move is valid, false otherwise
      */
     @Override
-    public boolean isMoveValid(int destRow, int destCol, Board board) {
+    public boolean isMoveValid(int srcRow, int srcCol, int destRow, int destCol, Board board) {
         // A queen's move is valid if it is a valid move for either a bishop or a rook
-        return new Bishop(row, col, isWhite).isMoveValid(destRow, destCol, board) ||
-               new Rook(row, col, isWhite).isMoveValid(destRow, destCol, board);
+        return isSliderMoveValid(AttackTables.QUEEN_DIRECTIONS, srcRow, srcCol, destRow, destCol, board);
     }
 
     /**
-     * Gets all valid moves for the Queen piece on the game board.
+     * Adds all valid moves for the Queen piece on the game board to a move list.
      *
-     * @param row the row position of the piece on the board
-     * @param col the column position of the piece on the board
+     * @param square the square of the piece
+     * @param type the type code to record as the moving piece
      * @param board the game board
-     * @return a list of int arrays representing the valid moves
+     * @param moves the list to append the packed moves to
      */
     @Override
-    public List<int[]> getValidMoves(int row, int col, Board board) {
-        List<int[]> validMoves = new ArrayList<>();
-
-        // Get valid moves for a bishop
-        validMoves.addAll(new Bishop(row, col, isWhite).getValidMoves(row, col, board));
-        // Get valid moves for a rook
-        validMoves.addAll(new Rook(row, col, isWhite).getValidMoves(row, col, board));
-
-        return validMoves;
+    protected void addMoves(int square, int type, Board board, MoveList moves) {
+        // Read the diagonal rays of a bishop and the straight rays of a rook
+        addSliderMoves(AttackTables.QUEEN_DIRECTIONS, square, type, board, moves);
     }
 
     /**
@@ -61,5 +53,15 @@ public class Queen extends Piece {
      */
     public double getPieceValue() {
         return 9.5;
-    }   
+    }
+
+    /**
+     * Gets the type code of the Queen piece.
+     *
+     * @return {@link Piece#QUEEN}
+     */
+    @Override
+    public int getType() {
+        return QUEEN;
+    }
 }
@@ -1,8 +1,5 @@
 package XXLChess;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * Represents an Rook chess piece.
  */
@@ -22,76 +19,31 @@ public class Rook extends Piece {
     /**
      * Checks if a move for the Rook piece is valid.
      *
+     * @param srcRow the row position of the source square
+     * @param srcCol the column position of the source square
      * @param destRow the row position of the destination square
      * @param destCol the column position of the destination square
      * @param board the game board
      * @return true if the move is valid, false otherwise
      */
     @Override
-    public boolean isMoveValid(int destRow, int destCol, Board board) {
-        int rowDiff = Math.abs(destRow - row);
-        int colDiff = Math.abs(destCol - col);
-
-        // Check if the destination square is occupied by a piece of the same color
-        Piece destPiece = board.getPiece(destRow, destCol);
-        if (destPiece != null && destPiece.isWhite == isWhite) {
-            return false;
-        }
-
-        // Rook can move only in a straight line (row or column)
-        if (rowDiff == 0 || colDiff == 0) {
-            // Check for pieces in the path
-            int rowStep = (destRow - row) == 0 ? 0 : (destRow - row) / rowDiff;
-            int colStep = (destCol - col) == 0 ? 0 : (destCol - col) / colDiff;
-
-            for (int i = 1; i < Math.max(rowDiff, colDiff); i++) {
-                if (board.getPiece(row + i * rowStep, col + i * colStep) != null) {
-                    return false;
-                }
-            }
-
-            return true;
-        }
-
-        return false;
+    public boolean isMoveValid(int srcRow, int srcCol, int destRow, int destCol, Board board) {
+        // Rook can move only in a straight line (row or column) up to the first piece in its path
+        return isSliderMoveValid(AttackTables.ROOK_DIRECTIONS, srcRow, srcCol, destRow, destCol, board);
     }
 
     /**
-     * Gets all valid moves for the Rook piece on the game board.
+     * Adds all valid moves for the Rook piece on the game board to a move list.
      *
-     * @param row the row position of the piece on the board
-     * @param col the column position of the piece on the board
+     * @param square the square of the piece
+     * @param type the type code to record as the moving piece
      * @param board the game board
-     * @return a list of int arrays representing the valid moves
+     * @param moves the list to append the packed moves to
      */
     @Override
-    public List<int[]> getValidMoves(int row, int col, Board board) {
-        List<int[]> validMoves = new ArrayList<>();
-
-        // Generate all possible moves in horizontal and vertical directions
-        for (int[] direction : new int[][]{{1, 0}, {-1, 0}, {0, 1}, {0, -1}}) {
-            int newRow = row + direction[0];
-            int newCol = col + direction[1];
-
-            while (board.isInsideBoard(newRow, newCol)) {
-                Piece targetPiece = board.getPiece(newRow, newCol);
-                // If the current square is empty, it is a valid move
-                if (targetPiece == null) {
-                    validMoves.add(new int[]{newRow, newCol});
-                } else {
-                    if (targetPiece.isWhite != isWhite) {
-                        validMoves.add(new int[]{newRow, newCol});
-                    }
-                    break;
-                }
-
-                // Move to the next square in the current direction
-                newRow += direction[0];
-                newCol += direction[1];
-            }
-        }
-
-        return validMoves;
+    protected void addMoves(int square, int type, Board board, MoveList moves) {
+        // Read the horizontal and vertical rays from the table, stopping at the first piece on each
+        addSliderMoves(AttackTables.ROOK_DIRECTIONS, square, type, board, moves);
     }
 
     /**
@@ -101,5 +53,15 @@ public class Rook extends Piece {
      */
     public double getPieceValue() {
         return 5.25;
-    }    
-}
\ No newline at end of file
+    }
+
+    /**
+     * Gets the type code of the Rook piece.
+     *
+     * @return {@link Piece#ROOK}
+     */
+    @Override
+    public int getType() {
+        return ROOK;
+    }
+}
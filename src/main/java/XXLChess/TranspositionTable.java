@@ -0,0 +1,164 @@
+package XXLChess;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size hash table of search results, indexed by the position's Zobrist key.
+ *
+ * Each entry is two longs in one flat array: the key XORed with the data, then the data itself. The data
+ * packs the best move's source and destination squares (the low 16 bits of a packed {@link Move}), the
+ * search depth, the bound type, the search generation and the score. Storing the key XORed with the data
+ * means an entry half overwritten by another thread fails to verify instead of returning wrong data, so the
+ * table can be shared without locks.
+ *
+ * The table has a power-of-two number of entries. An entry is replaced by a result from at least the same
+ * depth, or by anything once it is left over from an earlier search (see {@link #newSearch}).
+ */
+public class TranspositionTable {
+    /** Size used when none is configured. */
+    public static final int DEFAULT_MEGABYTES = 16;
+
+    /** Bound type of a score that is exact. */
+    public static final int EXACT = 1;
+
+    /** Bound type of a score that is a lower bound (the search failed high). */
+    public static final int LOWER = 2;
+
+    /** Bound type of a score that is an upper bound (the search failed low). */
+    public static final int UPPER = 3;
+
+    private static final int ENTRY_BYTES = 2 * Long.BYTES;
+    private static final int GENERATION_MASK = 0x3F;
+
+    private final long[] entries;
+    private final int indexMask;
+    private int generation;
+
+    /**
+     * Creates a table of about the given size.
+     *
+     * @param megabytes the size in megabytes, rounded down to a power of two number of entries
+     * @throws IllegalArgumentException if the size is not positive
+     */
+    public TranspositionTable(int megabytes) {
+        if (megabytes <= 0) {
+            throw new IllegalArgumentException("Transposition table size must be positive: " + megabytes);
+        }
+        long entryCount = Math.min((long) megabytes * 1024 * 1024 / ENTRY_BYTES, 1 << 29);
+        int size = Integer.highestOneBit((int) entryCount);
+        entries = new long[2 * size];
+        indexMask = size - 1;
+    }
+
+    /**
+     * Returns the number of entries in the table.
+     *
+     * @return the capacity, a power of two
+     */
+    public int capacity() {
+        return indexMask + 1;
+    }
+
+    /**
+     * Starts a new search, so that entries from earlier searches give way to new results regardless of their
+     * depth.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void clear() {
+        Arrays.fill(entries, 0L);
+    }
+
+    /**
+     * Looks up a position.
+     *
+     * @param key the Zobrist key of the position
+     * @return the packed data of the entry (read it with {@link #move}, {@link #depth}, {@link #bound} and
+     *         {@link #score}), or 0 if the position is not in the table
+     */
+    public long probe(long key) {
+        int index = ((int) key & indexMask) << 1;
+        long data = entries[index + 1];
+        if ((entries[index] ^ data) != key || bound(data) == 0) {
+            return 0L;
+        }
+        return data;
+    }
+
+    /**
+     * Stores a search result, unless the entry in its slot holds a deeper result from the current search.
+     *
+     * @param key the Zobrist key of the position
+     * @param depth the depth the position was searched to, from 0 to 255
+     * @param bound {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     * @param score the score, from the point of view of the side to move
+     * @param move the best move found, or {@link Move#NONE}
+     */
+    public void store(long key, int depth, int bound, int score, int move) {
+        int index = ((int) key & indexMask) << 1;
+        long old = entries[index + 1];
+        if (bound(old) != 0 && generation(old) == generation && depth(old) > depth) {
+            return;
+        }
+        long data = (move & 0xFFFFL) | (long) depth << 16 | (long) bound << 24 | (long) generation << 26 |
+                    (long) score << 32;
+        entries[index + 1] = data;
+        entries[index] = key ^ data;
+    }
+
+    /**
+     * Returns the best move of an entry, as the low 16 bits (source and destination squares) of a packed
+     * move.
+     *
+     * @param data the entry data returned by {@link #probe}
+     * @return the move's squares, or 0 if no move was stored
+     */
+    public static int move(long data) {
+        return (int) (data & 0xFFFF);
+    }
+
+    /**
+     * Returns the search depth of an entry.
+     *
+     * @param data the entry data returned by {@link #probe}
+     * @return the depth
+     */
+    public static int depth(long data) {
+        return (int) (data >>> 16) & 0xFF;
+    }
+
+    /**
+     * Returns the bound type of an entry.
+     *
+     * @param data the entry data returned by {@link #probe}
+     * @return {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+     */
+    public static int bound(long data) {
+        return (int) (data >>> 24) & 0x3;
+    }
+
+    /**
+     * Returns the score of an entry.
+     *
+     * @param data the entry data returned by {@link #probe}
+     * @return the score, from the point of view of the side to move
+     */
+    public static int score(long data) {
+        return (int) (data >> 32);
+    }
+
+    /**
+     * Returns the generation of the search that stored an entry.
+     *
+     * @param data the entry data
+     * @return the generation
+     */
+    private static int generation(long data) {
+        return (int) (data >>> 26) & GENERATION_MASK;
+    }
+}
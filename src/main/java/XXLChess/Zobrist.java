@@ -0,0 +1,65 @@
+package XXLChess;
+
+import java.util.Random;
+
+/**
+ * Random keys used by {@link Board} to maintain a 64-bit Zobrist hash of the position.
+ *
+ * The hash of a position is the XOR of one key per piece on its square, one key per king or rook that has
+ * not moved yet (which is what castling depends on), and {@link #BLACK_TO_MOVE} when it is black's turn.
+ * The keys come from a fixed seed so that hashes are reproducible between runs.
+ */
+public final class Zobrist {
+    private static final long SEED = 0x5EED_C0DE_2024L;
+
+    private static final long[] PIECE_KEYS = new long[2 * Piece.TYPE_COUNT * Board.SQUARES];
+    private static final long[] UNMOVED_KEYS = new long[Board.SQUARES];
+
+    /** Key mixed in when black is to move. */
+    public static final long BLACK_TO_MOVE;
+
+    static {
+        Random random = new Random(SEED);
+        for (int i = 0; i < PIECE_KEYS.length; i++) {
+            PIECE_KEYS[i] = random.nextLong();
+        }
+        for (int i = 0; i < UNMOVED_KEYS.length; i++) {
+            UNMOVED_KEYS[i] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Returns the key of a piece of the given type and color standing on a square.
+     *
+     * @param type the piece type code
+     * @param isWhite the color of the piece
+     * @param square the square index
+     * @return the key for that piece on that square
+     */
+    public static long pieceKey(int type, boolean isWhite, int square) {
+        return PIECE_KEYS[(Board.colorIndex(isWhite) * Piece.TYPE_COUNT + type) * Board.SQUARES + square];
+    }
+
+    /**
+     * Returns the full contribution of a piece on a square, including the castling key of an unmoved king
+     * or rook.
+     *
+     * @param piece the piece, or null for an empty square
+     * @param square the square index
+     * @return the key to XOR into the position hash
+     */
+    public static long key(Piece piece, int square) {
+        if (piece == null) {
+            return 0L;
+        }
+        long key = pieceKey(piece.getType(), piece.isWhite, square);
+        if (!piece.hasMoved() && (piece.getType() == Piece.KING || piece.getType() == Piece.ROOK)) {
+            key ^= UNMOVED_KEYS[square];
+        }
+        return key;
+    }
+}
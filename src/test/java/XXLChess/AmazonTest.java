@@ -43,4 +43,17 @@ public class AmazonTest {
     public void testGetPieceValue() {
         assertEquals(12.0, amazon.getPieceValue());
     }
+
+    @Test
+    public void testSharedDefinition() {
+        Piece definition = Piece.definition(Piece.AMAZON, true);
+        assertSame(definition, Piece.definition(Piece.AMAZON, true));
+        assertNotSame(definition, Piece.definition(Piece.AMAZON, false));
+        assertEquals(Piece.AMAZON, definition.getType());
+
+        // The definition works from whatever square the caller supplies
+        assertTrue(definition.isMoveValid(7, 7, 5, 6, board));
+        assertFalse(definition.isMoveValid(7, 7, 11, 6, board));
+        assertEquals(59, definition.getValidMoves(7, 7, board).size());
+    }
 }
@@ -2,6 +2,7 @@ package XXLChess;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.util.Arrays;
 import static org.junit.jupiter.api.Assertions.*;
 
 public class AppTest extends App {
@@ -248,4 +249,175 @@ public class AppTest extends App {
 
         assertTrue(isValidMove, "AI should make a valid move");
     }
+
+    @Test
+    public void testCheckmatedAIEndsGame() {
+        app.board = new Board();
+        app.board.setPiece(0, 0, new King(0, 0, false));
+        app.board.setPiece(1, 1, new Queen(1, 1, true));
+        app.board.setPiece(2, 2, new King(2, 2, true));
+        app.whiteTurn = false;
+        long key = app.board.getZobristKey();
+
+        // Black has no moves, so no search is started and nothing is played
+        app.startAI();
+        assertFalse(app.isAIThinking());
+        app.runAI();
+        assertTrue(app.gameEnded);
+        assertTrue(app.checkmate);
+        assertFalse(app.stalemate);
+        assertFalse(app.whiteTurn);
+        assertEquals(key, app.board.getZobristKey());
+    }
+
+    @Test
+    public void testStalematedAIEndsGame() {
+        app.board = new Board();
+        app.board.setPiece(0, 0, new King(0, 0, false));
+        app.board.setPiece(2, 1, new Queen(2, 1, true));
+        app.board.setPiece(13, 13, new King(13, 13, true));
+        app.whiteTurn = false;
+
+        app.runAI();
+
+        assertTrue(app.gameEnded);
+        assertTrue(app.stalemate);
+        assertFalse(app.checkmate);
+        assertTrue(app.board.getPiece(0, 0) instanceof King);
+    }
+
+    @Test
+    public void testAIMateEndsGame() {
+        app.board = new Board();
+        app.board.setPiece(0, 0, new King(0, 0, true));
+        app.board.setPiece(2, 1, new Queen(2, 1, false));
+        app.board.setPiece(5, 13, new Rook(5, 13, false));
+        app.board.setPiece(13, 13, new King(13, 13, false));
+        app.whiteTurn = false;
+        app.depth = 3;
+
+        app.runAI();
+
+        // The rook mates along the back row, and white's turn never starts
+        assertTrue(app.board.getPiece(0, 13) instanceof Rook);
+        assertTrue(app.whiteTurn);
+        assertTrue(app.gameEnded);
+        assertTrue(app.checkmate);
+    }
+
+    @Test
+    public void testBackgroundAI() throws InterruptedException {
+        app.board = new Board();
+        app.board.loadBoardFromTextFile("src/main/level.txt");
+        app.board.movePiece(12, 4, 11, 4);
+        app.whiteTurn = false;
+        app.depth = 2;
+
+        app.startAI();
+        assertTrue(app.isAIThinking());
+
+        // The board is left alone until the move is polled
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!app.pollAI()) {
+            assertFalse(app.whiteTurn);
+            assertTrue(System.currentTimeMillis() < deadline, "AI should finish a depth 2 search");
+            Thread.sleep(10);
+        }
+
+        assertTrue(app.whiteTurn, "AI should have played its move");
+        assertFalse(app.isAIThinking());
+        assertEquals(28, app.board.getPieceCount(false));
+    }
+
+    @Test
+    public void testCancelAI() throws InterruptedException {
+        app.board = new Board();
+        app.board.loadBoardFromTextFile("src/main/level.txt");
+        app.board.movePiece(12, 4, 11, 4);
+        app.whiteTurn = false;
+        app.depth = 20;
+        app.blackTimeLeft = -1;
+        long key = app.board.getZobristKey();
+
+        app.startAI();
+        Thread.sleep(50);
+        app.cancelAI();
+
+        // The cancelled move is never played, and a new search can start straight away
+        assertFalse(app.isAIThinking());
+        assertFalse(app.pollAI());
+        assertFalse(app.whiteTurn);
+        assertEquals(key, app.board.getZobristKey());
+
+        app.depth = 1;
+        app.blackTimeLeft = 60000;
+        app.startAI();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!app.pollAI()) {
+            assertTrue(System.currentTimeMillis() < deadline, "A cancelled search should stop promptly");
+            Thread.sleep(10);
+        }
+        assertTrue(app.whiteTurn);
+    }
+
+    @Test
+    public void testPonderHit() throws InterruptedException {
+        app.board = new Board();
+        app.board.loadBoardFromTextFile("src/main/level.txt");
+        app.board.movePiece(12, 4, 11, 4);
+        app.whiteTurn = false;
+        app.depth = 2;
+        playAIMove();
+
+        // After its move the AI ponders on the reply it expects
+        int[] predicted = app.getPonderMove();
+        assertNotNull(predicted, "AI should ponder on white's expected reply");
+        assertTrue(app.board.isMoveValid(predicted[0], predicted[1], predicted[2], predicted[3]));
+
+        // White plays it: the ponder search carries on as the AI's search
+        app.board.movePiece(predicted[0], predicted[1], predicted[2], predicted[3]);
+        app.whiteTurn = false;
+        app.checkPonder(predicted[0], predicted[1], predicted[2], predicted[3]);
+        assertNull(app.getPonderMove());
+        assertTrue(app.isAIThinking());
+        playAIMove();
+    }
+
+    @Test
+    public void testPonderMiss() throws InterruptedException {
+        app.board = new Board();
+        app.board.loadBoardFromTextFile("src/main/level.txt");
+        app.board.movePiece(12, 4, 11, 4);
+        app.whiteTurn = false;
+        app.depth = 2;
+        playAIMove();
+        int[] predicted = app.getPonderMove();
+        assertNotNull(predicted);
+
+        // White plays something else: the ponder search is dropped and the AI has to start afresh
+        int[] other = Arrays.equals(predicted, new int[]{12, 0, 11, 0}) ? new int[]{12, 13, 11, 13} : new int[]{12, 0, 11, 0};
+        app.board.movePiece(other[0], other[1], other[2], other[3]);
+        app.whiteTurn = false;
+        app.checkPonder(other[0], other[1], other[2], other[3]);
+        assertNull(app.getPonderMove());
+        assertFalse(app.isAIThinking());
+
+        app.startAI();
+        playAIMove();
+    }
+
+    /**
+     * Waits for the AI's background search, starting one if none is running, and plays its move.
+     */
+    private void playAIMove() throws InterruptedException {
+        if (!app.isAIThinking()) {
+            app.startAI();
+        }
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!app.pollAI()) {
+            assertTrue(System.currentTimeMillis() < deadline, "AI should finish a depth 2 search");
+            Thread.sleep(10);
+        }
+        assertTrue(app.whiteTurn, "AI should have played its move");
+    }
 }
@@ -0,0 +1,58 @@
+package XXLChess;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AttackTablesTest {
+
+    @Test
+    public void testKnightTable() {
+        int center = Board.square(7, 7);
+        assertEquals(8, Bitboard.count(AttackTables.KNIGHT, center * Bitboard.WORDS));
+        assertTrue(AttackTables.attacks(AttackTables.KNIGHT, center, Board.square(5, 8)));
+        assertFalse(AttackTables.attacks(AttackTables.KNIGHT, center, Board.square(6, 7)));
+
+        // Jumps off the board are left out of the corner squares
+        assertEquals(2, Bitboard.count(AttackTables.KNIGHT, Board.square(0, 0) * Bitboard.WORDS));
+    }
+
+    @Test
+    public void testCamelTable() {
+        assertEquals(8, Bitboard.count(AttackTables.CAMEL, Board.square(7, 7) * Bitboard.WORDS));
+        assertTrue(AttackTables.attacks(AttackTables.CAMEL, Board.square(0, 0), Board.square(3, 1)));
+        assertEquals(2, Bitboard.count(AttackTables.CAMEL, Board.square(13, 13) * Bitboard.WORDS));
+    }
+
+    @Test
+    public void testKingTable() {
+        assertEquals(8, Bitboard.count(AttackTables.KING, Board.square(7, 7) * Bitboard.WORDS));
+        assertEquals(3, Bitboard.count(AttackTables.KING, Board.square(0, 13) * Bitboard.WORDS));
+    }
+
+    @Test
+    public void testGuardIsKnightAndKing() {
+        for (int square = 0; square < Board.SQUARES; square++) {
+            for (int target = 0; target < Board.SQUARES; target++) {
+                boolean expected = AttackTables.attacks(AttackTables.KNIGHT, square, target) ||
+                                   AttackTables.attacks(AttackTables.KING, square, target);
+                assertEquals(expected, AttackTables.attacks(AttackTables.GUARD, square, target));
+            }
+        }
+    }
+
+    @Test
+    public void testRays() {
+        int corner = Board.square(13, 0);
+        // The long diagonal from a corner crosses the whole board
+        int direction = AttackTables.direction(corner, Board.square(0, 13));
+        assertEquals(13, AttackTables.rayLength(corner, direction));
+        assertEquals(Board.square(12, 1), AttackTables.raySquare(corner, direction, 0));
+        assertEquals(Board.square(0, 13), AttackTables.raySquare(corner, direction, 12));
+        assertEquals(13, Bitboard.count(AttackTables.RAYS, AttackTables.rayOffset(corner, direction)));
+
+        // Squares off every line have no direction
+        assertEquals(-1, AttackTables.direction(corner, Board.square(11, 1)));
+        assertEquals(-1, AttackTables.direction(corner, corner));
+        assertEquals(12, AttackTables.distance(corner, Board.square(1, 12)));
+    }
+}
@@ -0,0 +1,89 @@
+package XXLChess;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BitboardTest {
+
+    private long[] bits;
+
+    @BeforeEach
+    public void setUp() {
+        // Two sets stored back to back in one array
+        bits = new long[2 * Bitboard.WORDS];
+    }
+
+    @Test
+    public void testSetClearAndTest() {
+        Bitboard.set(bits, Bitboard.WORDS, 0);
+        Bitboard.set(bits, Bitboard.WORDS, 64);
+        Bitboard.set(bits, Bitboard.WORDS, Board.SQUARES - 1);
+
+        assertTrue(Bitboard.test(bits, Bitboard.WORDS, 64));
+        assertTrue(Bitboard.test(bits, Bitboard.WORDS, Board.SQUARES - 1));
+        // The first set must be untouched
+        assertFalse(Bitboard.test(bits, 0, 64));
+        assertEquals(3, Bitboard.count(bits, Bitboard.WORDS));
+
+        Bitboard.clear(bits, Bitboard.WORDS, 64);
+        assertFalse(Bitboard.test(bits, Bitboard.WORDS, 64));
+        assertEquals(2, Bitboard.count(bits, Bitboard.WORDS));
+    }
+
+    @Test
+    public void testNextWalksAllSquaresInOrder() {
+        int[] expected = {3, 63, 64, 127, 130, Board.SQUARES - 1};
+        for (int square : expected) {
+            Bitboard.set(bits, 0, square);
+        }
+
+        int index = 0;
+        for (int square = Bitboard.next(bits, 0, 0); square >= 0; square = Bitboard.next(bits, 0, square + 1)) {
+            assertEquals(expected[index++], square);
+        }
+        assertEquals(expected.length, index);
+        assertEquals(-1, Bitboard.next(bits, 0, Bitboard.WORDS * 64));
+    }
+
+    @Test
+    public void testIntersection() {
+        Bitboard.set(bits, 0, 10);
+        Bitboard.set(bits, 0, 100);
+        Bitboard.set(bits, 0, 150);
+        Bitboard.set(bits, Bitboard.WORDS, 100);
+        Bitboard.set(bits, Bitboard.WORDS, 150);
+        Bitboard.set(bits, Bitboard.WORDS, 151);
+
+        assertEquals(2, Bitboard.countAnd(bits, 0, bits, Bitboard.WORDS));
+        assertEquals(100, Bitboard.nextAnd(bits, 0, bits, Bitboard.WORDS, 0));
+        assertEquals(150, Bitboard.nextAnd(bits, 0, bits, Bitboard.WORDS, 101));
+        assertEquals(-1, Bitboard.nextAnd(bits, 0, bits, Bitboard.WORDS, 151));
+    }
+
+    @Test
+    public void testDifference() {
+        Bitboard.set(bits, 0, 10);
+        Bitboard.set(bits, 0, 100);
+        Bitboard.set(bits, 0, 150);
+        Bitboard.set(bits, Bitboard.WORDS, 100);
+
+        assertEquals(10, Bitboard.nextAndNot(bits, 0, bits, Bitboard.WORDS, 0));
+        assertEquals(150, Bitboard.nextAndNot(bits, 0, bits, Bitboard.WORDS, 11));
+        assertEquals(-1, Bitboard.nextAndNot(bits, 0, bits, Bitboard.WORDS, 151));
+    }
+
+    @Test
+    public void testPreviousInIntersection() {
+        Bitboard.set(bits, 0, 10);
+        Bitboard.set(bits, 0, 100);
+        Bitboard.set(bits, Bitboard.WORDS, 10);
+        Bitboard.set(bits, Bitboard.WORDS, 100);
+        Bitboard.set(bits, Bitboard.WORDS, 150);
+
+        assertEquals(100, Bitboard.previousAnd(bits, 0, bits, Bitboard.WORDS, Board.SQUARES - 1));
+        assertEquals(10, Bitboard.previousAnd(bits, 0, bits, Bitboard.WORDS, 99));
+        assertEquals(-1, Bitboard.previousAnd(bits, 0, bits, Bitboard.WORDS, 9));
+        assertEquals(-1, Bitboard.previousAnd(bits, 0, bits, Bitboard.WORDS, -1));
+    }
+}
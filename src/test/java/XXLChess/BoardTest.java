@@ -2,7 +2,9 @@ package XXLChess;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
 import org.junit.jupiter.api.io.TempDir;
 import java.nio.file.Path;
 import java.nio.file.Files;
@@ -101,6 +103,19 @@ public class BoardTest {
         assertTrue(capturedPiece.isWhite);
     }
 
+    @Test
+    public void testMovePieceRejectsNonMoves() {
+        board.setPiece(0, 0, new Rook(0, 0, true));
+        board.setPiece(2, 2, new King(2, 2, true));
+
+        // An empty source square and a move to the same square are rejected without touching the board
+        assertThrows(IllegalArgumentException.class, () -> board.movePiece(1, 1, 1, 2));
+        assertThrows(IllegalArgumentException.class, () -> board.movePiece(0, 0, 0, 0));
+        assertTrue(board.getPiece(0, 0) instanceof Rook);
+        assertTrue(board.getPiece(2, 2) instanceof King);
+        assertTrue(board.isWhiteToMove());
+    }
+
     @Test
     public void testGetPieceInsideBoard() {
         // Set up the board with a custom piece for testing
@@ -202,4 +217,697 @@ public class BoardTest {
         assertEquals(whiteMoves.size(), 13);
         assertEquals(blackMoves.size(), 8);
     }
+
+    @Test
+    public void testOccupancyFollowsSetPiece() {
+        board.setPiece(0, 0, new Rook(0, 0, true));
+        board.setPiece(13, 13, new Rook(13, 13, true));
+        board.setPiece(5, 5, new Knight(5, 5, false));
+
+        // Walking white pieces visits only the occupied squares, in square order
+        assertEquals(Board.square(0, 0), board.nextPieceSquare(true, 0));
+        assertEquals(Board.square(13, 13), board.nextPieceSquare(true, 1));
+        assertEquals(-1, board.nextPieceSquare(true, Board.square(13, 13) + 1));
+        assertEquals(2, board.countPieces(Piece.ROOK, true));
+        assertEquals(Board.square(5, 5), board.nextPieceSquare(Piece.KNIGHT, false, 0));
+
+        // Replacing and clearing pieces keeps the sets in sync
+        board.setPiece(13, 13, new Knight(13, 13, false));
+        assertEquals(1, board.countPieces(Piece.ROOK, true));
+        assertEquals(2, board.countPieces(Piece.KNIGHT, false));
+        board.clearBoard();
+        assertEquals(-1, board.nextPieceSquare(true, 0));
+        assertEquals(-1, board.nextPieceSquare(false, 0));
+    }
+
+    @Test
+    public void testMakeAndUnmakeMove() {
+        Rook rook = new Rook(0, 0, true);
+        Knight knight = new Knight(5, 0, false);
+        board.setPiece(0, 0, rook);
+        board.setPiece(5, 0, knight);
+
+        // Capture the knight and take the move back
+        Piece capturedPiece = board.makeMove(0, 0, 5, 0);
+        assertSame(knight, capturedPiece);
+        assertSame(rook, board.getPiece(5, 0));
+        assertTrue(rook.hasMoved());
+        assertEquals(1, board.getPly());
+
+        board.unmakeMove();
+        assertSame(rook, board.getPiece(0, 0));
+        assertSame(knight, board.getPiece(5, 0));
+        assertFalse(rook.hasMoved(), "Unmaking a move should restore the moved flag");
+        assertEquals(0, rook.row);
+        assertEquals(0, rook.col);
+        assertEquals(0, board.getPly());
+        assertEquals(1, board.countPieces(Piece.KNIGHT, false));
+    }
+
+    @Test
+    public void testMakeAndUnmakePromotion() {
+        Pawn pawn = new Pawn(8, 3, true);
+        board.setPiece(8, 3, pawn);
+
+        // A white pawn reaching the middle row is promoted
+        board.makeMove(8, 3, 7, 3);
+        assertTrue(board.getPiece(7, 3) instanceof Queen);
+        assertEquals(0, board.countPieces(Piece.PAWN, true));
+
+        board.unmakeMove();
+        assertSame(pawn, board.getPiece(8, 3));
+        assertNull(board.getPiece(7, 3));
+        assertEquals(1, board.countPieces(Piece.PAWN, true));
+        assertEquals(0, board.countPieces(Piece.QUEEN, true));
+    }
+
+    @Test
+    public void testUnmakeMoveWithEmptyStack() {
+        assertThrows(IllegalStateException.class, () -> board.unmakeMove());
+    }
+
+    @Test
+    public void testZobristKeyIsIncremental() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        long startKey = board.getZobristKey();
+        assertEquals(board.computeZobristKey(), startKey);
+
+        // Make and unmake a few moves, including a king move that drops its castling key
+        board.makeMove(12, 7, 10, 7);
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+        assertFalse(board.isWhiteToMove());
+        board.makeMove(1, 4, 3, 4);
+        board.makeMove(13, 7, 12, 7);
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+        board.unmakeMove();
+        board.unmakeMove();
+        board.unmakeMove();
+        assertEquals(startKey, board.getZobristKey());
+        assertTrue(board.isWhiteToMove());
+
+        // A real move keeps the key in sync as well
+        board.movePiece(12, 0, 11, 0);
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+        assertNotEquals(startKey, board.getZobristKey());
+    }
+
+    @Test
+    public void testZobristKeyIdentifiesTranspositions() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        board.makeMove(13, 1, 11, 0);
+        board.makeMove(0, 1, 2, 0);
+        board.makeMove(13, 12, 11, 13);
+        long firstOrder = board.getZobristKey();
+        board.unmakeMove();
+        board.unmakeMove();
+        board.unmakeMove();
+
+        board.makeMove(13, 12, 11, 13);
+        board.makeMove(0, 1, 2, 0);
+        board.makeMove(13, 1, 11, 0);
+        assertEquals(firstOrder, board.getZobristKey());
+
+        // The same placement with the other side to move is a different position
+        board.setWhiteToMove(true);
+        assertNotEquals(firstOrder, board.getZobristKey());
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+    }
+
+    @Test
+    public void testZobristKeyTracksCastlingRights() {
+        Rook rook = new Rook(13, 0, true);
+        board.setPiece(13, 0, rook);
+        long unmovedKey = board.getZobristKey();
+
+        // Moving the rook away and back leaves it on the same square without castling rights
+        board.movePiece(13, 0, 12, 0);
+        board.movePiece(12, 0, 13, 0);
+        assertSame(rook, board.getPiece(13, 0));
+        assertNotEquals(unmovedKey, board.getZobristKey());
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+    }
+
+    @Test
+    public void testPawnKeyIsIncremental() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        long startKey = board.getPawnKey();
+        assertEquals(board.computePawnKey(), startKey);
+
+        // Other pieces moving leave it alone; pawn moves change it
+        board.makeMove(13, 1, 11, 2);
+        assertEquals(startKey, board.getPawnKey());
+        board.makeMove(1, 4, 3, 4);
+        assertNotEquals(startKey, board.getPawnKey());
+        assertEquals(board.computePawnKey(), board.getPawnKey());
+        board.unmakeMove();
+        board.unmakeMove();
+        assertEquals(startKey, board.getPawnKey());
+
+        board.clearBoard();
+        assertEquals(0L, board.getPawnKey());
+    }
+
+    @Test
+    public void testEvaluationIsIncremental() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        int startScore = board.evaluate(true);
+        assertEquals(board.computeEvaluation(true), startScore);
+        assertEquals(-startScore, board.evaluate(false));
+
+        // Random games capture and promote; the running score always matches a full recount
+        Random random = new Random(3);
+        MoveList legal = new MoveList();
+        boolean isWhite = true;
+        for (int game = 0; game < 4; game++) {
+            int played = 0;
+            for (int i = 0; i < 80; i++) {
+                legal.clear();
+                board.generateLegalMoves(isWhite, legal);
+                if (legal.size() == 0) {
+                    break;
+                }
+                board.makeMove(legal.get(random.nextInt(legal.size())));
+                assertEquals(board.computeEvaluation(true), board.evaluate(true));
+                played++;
+                isWhite = !isWhite;
+            }
+            for (int i = 0; i < played; i++) {
+                board.unmakeMove();
+                isWhite = !isWhite;
+                assertEquals(board.computeEvaluation(true), board.evaluate(true));
+            }
+        }
+        assertEquals(startScore, board.evaluate(true));
+
+        // A copy starts with the same score
+        assertEquals(startScore, new Board(board).evaluate(true));
+    }
+
+    @Test
+    public void testPieceListsAndKingSquares() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        assertEquals(28, board.getPieceCount(true));
+        assertEquals(28, board.getPieceCount(false));
+        assertEquals(Board.square(13, 7), board.getKingSquare(true));
+        assertEquals(Board.square(0, 7), board.getKingSquare(false));
+
+        int[] whiteOrder = new int[board.getPieceCount(true)];
+        for (int i = 0; i < whiteOrder.length; i++) {
+            whiteOrder[i] = board.getPieceSquare(true, i);
+            assertTrue(board.getPiece(Board.rowOf(whiteOrder[i]), Board.colOf(whiteOrder[i])).isWhite);
+        }
+
+        // Moves, captures and a king move keep the lists and king square in sync
+        board.makeMove(12, 7, 10, 7);
+        board.makeMove(13, 7, 12, 7);
+        assertEquals(Board.square(12, 7), board.getKingSquare(true));
+        board.makeMove(1, 3, 12, 3);
+        assertEquals(27, board.getPieceCount(true));
+        board.unmakeMove();
+        board.unmakeMove();
+        board.unmakeMove();
+
+        // Unmaking restores the exact list order
+        for (int i = 0; i < whiteOrder.length; i++) {
+            assertEquals(whiteOrder[i], board.getPieceSquare(true, i));
+        }
+        assertEquals(Board.square(13, 7), board.getKingSquare(true));
+    }
+
+    @Test
+    public void testKingSquareAfterCapture() {
+        board.setPiece(4, 4, new King(4, 4, false));
+        board.setPiece(4, 9, new Rook(4, 9, true));
+        assertEquals(Board.square(4, 4), board.getKingSquare(false));
+
+        board.movePiece(4, 9, 4, 4);
+        assertEquals(-1, board.getKingSquare(false));
+        assertEquals(0, board.getPieceCount(false));
+        assertEquals(1, board.getPieceCount(true));
+    }
+
+    @Test
+    public void testGenerateMovesMatchesCoordinateMoves() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        MoveList moves = new MoveList();
+        board.generateMoves(true, moves);
+        List<int[]> coordinateMoves = board.getAllMovesForColor(true);
+
+        assertEquals(coordinateMoves.size(), moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            assertArrayEquals(coordinateMoves.get(i), Move.toArray(moves.get(i)));
+        }
+
+        // Playing a packed move is the same as playing its coordinates
+        int move = Move.encode(Board.square(12, 7), Board.square(10, 7), Piece.PAWN, Move.NO_CAPTURE, false);
+        assertTrue(moves.contains(move));
+        long key = board.getZobristKey();
+        board.makeMove(move);
+        assertNotNull(board.getPiece(10, 7));
+        board.unmakeMove();
+        assertEquals(key, board.getZobristKey());
+    }
+
+    @Test
+    public void testFirstBlocker() {
+        board.setPiece(7, 2, new Pawn(7, 2, true));
+        board.setPiece(7, 11, new Pawn(7, 11, false));
+        board.setPiece(3, 3, new Pawn(3, 3, false));
+        int from = Board.square(7, 7);
+
+        assertEquals(Board.square(7, 2), board.firstBlocker(from, AttackTables.direction(from, Board.square(7, 0))));
+        assertEquals(Board.square(7, 11), board.firstBlocker(from, AttackTables.direction(from, Board.square(7, 13))));
+        assertEquals(Board.square(3, 3), board.firstBlocker(from, AttackTables.direction(from, Board.square(0, 0))));
+        assertEquals(-1, board.firstBlocker(from, AttackTables.direction(from, Board.square(13, 13))));
+    }
+
+    @Test
+    public void testGeneratedMovesAgreeWithIsMoveValid() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        board.makeMove(12, 7, 10, 7);
+        board.makeMove(1, 6, 3, 6);
+        board.makeMove(12, 4, 10, 4);
+
+        // Every piece generates exactly the destinations that isMoveValid accepts
+        MoveList moves = new MoveList();
+        for (int square = 0; square < Board.SQUARES; square++) {
+            Piece piece = board.getPiece(Board.rowOf(square), Board.colOf(square));
+            if (piece == null || piece.getType() == Piece.PAWN) {
+                continue;
+            }
+            moves.clear();
+            piece.generateMoves(square, board, moves);
+            for (int target = 0; target < Board.SQUARES; target++) {
+                boolean valid = piece.isMoveValid(Board.rowOf(square), Board.colOf(square), Board.rowOf(target), Board.colOf(target), board);
+                boolean generated = false;
+                for (int i = 0; i < moves.size(); i++) {
+                    generated |= Move.to(moves.get(i)) == target;
+                }
+                assertEquals(valid, generated, piece.getType() + " from " + square + " to " + target);
+            }
+        }
+    }
+
+    @Test
+    public void testFindCheckers() {
+        board.setPiece(7, 7, new King(7, 7, true));
+        board.setPiece(7, 1, new Chancellor(7, 1, false));
+        board.setPiece(4, 8, new Camel(4, 8, false));
+        board.setPiece(6, 8, new Pawn(6, 8, false));
+        // A rook behind another piece and a bishop on a file give no check
+        board.setPiece(7, 12, new Rook(7, 12, false));
+        board.setPiece(7, 10, new Knight(7, 10, true));
+        board.setPiece(3, 7, new Bishop(3, 7, false));
+
+        int[] checkers = new int[Board.MAX_ATTACKERS];
+        int count = board.findCheckers(true, checkers);
+
+        assertEquals(3, count);
+        List<Integer> found = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            found.add(checkers[i]);
+        }
+        assertTrue(found.contains(Board.square(7, 1)));
+        assertTrue(found.contains(Board.square(4, 8)));
+        assertTrue(found.contains(Board.square(6, 8)));
+        assertEquals(0, board.findCheckers(false, checkers));
+    }
+
+    @Test
+    public void testPawnsOnlyAttackForwards() {
+        board.setPiece(7, 7, new King(7, 7, true));
+        // Black pawns move down the board: the one below the king has already passed it
+        board.setPiece(8, 8, new Pawn(8, 8, false));
+        int[] checkers = new int[Board.MAX_ATTACKERS];
+
+        assertEquals(0, board.findCheckers(true, checkers));
+
+        board.setPiece(6, 6, new Pawn(6, 6, false));
+        assertEquals(1, board.findCheckers(true, checkers));
+        assertEquals(Board.square(6, 6), checkers[0]);
+    }
+
+    @Test
+    public void testFindAttackersAgreesWithIsMoveValid() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        board.makeMove(12, 7, 10, 7);
+        board.makeMove(1, 6, 3, 6);
+        board.makeMove(12, 4, 10, 4);
+        board.makeMove(0, 3, 6, 9);
+
+        // The outward scan finds exactly the opposing pieces whose isMoveValid reaches each square
+        int[] attackers = new int[Board.MAX_ATTACKERS];
+        for (boolean isWhite : new boolean[]{true, false}) {
+            for (int square = 0; square < Board.SQUARES; square++) {
+                int expected = 0;
+                for (int from = 0; from < Board.SQUARES; from++) {
+                    Piece piece = board.getPiece(Board.rowOf(from), Board.colOf(from));
+                    if (piece == null || piece.isWhite == isWhite) {
+                        continue;
+                    }
+                    if (piece.getType() == Piece.PAWN) {
+                        // Pawns only capture, diagonally forwards, even when the square is empty now
+                        int forward = piece.isWhite ? -1 : 1;
+                        if (Board.rowOf(square) - Board.rowOf(from) == forward && Math.abs(Board.colOf(square) - Board.colOf(from)) == 1) {
+                            expected++;
+                        }
+                    } else if (piece.isMoveValid(Board.rowOf(from), Board.colOf(from), Board.rowOf(square), Board.colOf(square), board)) {
+                        expected++;
+                    }
+                }
+                if (!board.hasPieceOfColor(square, !isWhite)) {
+                    assertEquals(expected, board.findAttackers(square, isWhite, attackers), "square " + square);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testAttackMapsFollowMoves() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        assertAttackMapsMatchScan();
+
+        // Play the first generated move of each side for a while, including captures, then unmake them all
+        MoveList moves = new MoveList();
+        boolean isWhite = true;
+        for (int i = 0; i < 40; i++) {
+            moves.clear();
+            board.generateMoves(isWhite, moves);
+            board.makeMove(moves.get((i * 7) % moves.size()));
+            assertAttackMapsMatchScan();
+            isWhite = !isWhite;
+        }
+        for (int i = 0; i < 40; i++) {
+            board.unmakeMove();
+            assertAttackMapsMatchScan();
+        }
+
+        // A promotion swaps the pawn's attacks for a queen's
+        board.clearBoard();
+        board.setPiece(8, 3, new Pawn(8, 3, true));
+        board.setPiece(13, 3, new King(13, 3, true));
+        board.movePiece(8, 3, 7, 3);
+        assertAttackMapsMatchScan();
+        assertTrue(board.isAttacked(Board.square(0, 3), true));
+    }
+
+    @Test
+    public void testAttackMapsCountPawnsForwardsOnly() {
+        board.setPiece(7, 7, new Pawn(7, 7, true));
+        board.setPiece(6, 6, new Knight(6, 6, false));
+        board.setPiece(8, 8, new Knight(8, 8, false));
+
+        // A white pawn moves up the board, so the knight behind it is not attacked
+        assertTrue(board.isAttacked(Board.square(6, 6), true));
+        assertTrue(board.isAttacked(Board.square(6, 8), true));
+        assertFalse(board.isAttacked(Board.square(8, 8), true));
+        assertFalse(board.isAttacked(Board.square(8, 6), true));
+        assertAttackMapsMatchScan();
+    }
+
+    private void assertAttackMapsMatchScan() {
+        int[] attackers = new int[Board.MAX_ATTACKERS];
+        for (int square = 0; square < Board.SQUARES; square++) {
+            assertEquals(board.findAttackers(square, false, attackers), board.getAttackCount(square, true), "white on " + square);
+            assertEquals(board.findAttackers(square, true, attackers), board.getAttackCount(square, false), "black on " + square);
+        }
+    }
+
+    @Test
+    public void testLegalMovesMatchTrialMoves() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        Random random = new Random(11);
+        MoveList legal = new MoveList();
+        boolean isWhite = true;
+
+        // Random games reach checks, pins and captures; compare against trying every move on the board
+        for (int game = 0; game < 6; game++) {
+            int played = 0;
+            for (int i = 0; i < 60 && board.getKingSquare(true) >= 0 && board.getKingSquare(false) >= 0; i++) {
+                legal.clear();
+                board.generateLegalMoves(isWhite, legal);
+                MoveList expected = trialLegalMoves(isWhite);
+                assertEquals(expected.size(), legal.size());
+                for (int j = 0; j < expected.size(); j++) {
+                    assertTrue(legal.contains(expected.get(j)), Move.toString(expected.get(j)));
+                }
+                if (legal.size() == 0) {
+                    break;
+                }
+                board.makeMove(legal.get(random.nextInt(legal.size())));
+                played++;
+                isWhite = !isWhite;
+            }
+            for (int i = 0; i < played; i++) {
+                board.unmakeMove();
+                isWhite = !isWhite;
+            }
+        }
+    }
+
+    @Test
+    public void testLegalCapturesMatchLegalMoves() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        Random random = new Random(5);
+        MoveList legal = new MoveList();
+        MoveList captures = new MoveList();
+        boolean isWhite = true;
+        int captureCount = 0;
+
+        for (int game = 0; game < 6; game++) {
+            int played = 0;
+            for (int i = 0; i < 80 && board.getKingSquare(true) >= 0 && board.getKingSquare(false) >= 0; i++) {
+                legal.clear();
+                captures.clear();
+                board.generateLegalMoves(isWhite, legal);
+                board.generateLegalCaptures(isWhite, captures);
+
+                // The captures are exactly the legal moves that capture or promote
+                int expected = 0;
+                for (int j = 0; j < legal.size(); j++) {
+                    int move = legal.get(j);
+                    if (Move.isCapture(move) || Move.isPromotion(move)) {
+                        expected++;
+                        assertTrue(captures.contains(move), Move.toString(move));
+                    }
+                }
+                assertEquals(expected, captures.size());
+                captureCount += expected;
+
+                if (legal.size() == 0) {
+                    break;
+                }
+                // Prefer captures so that the games thin out the board
+                MoveList choices = captures.size() > 0 && random.nextBoolean() ? captures : legal;
+                board.makeMove(choices.get(random.nextInt(choices.size())));
+                played++;
+                isWhite = !isWhite;
+            }
+            for (int i = 0; i < played; i++) {
+                board.unmakeMove();
+                isWhite = !isWhite;
+            }
+        }
+        assertTrue(captureCount > 0);
+    }
+
+    @Test
+    public void testPinnedPieceMovesAlongPin() {
+        board.setPiece(13, 7, new King(13, 7, true));
+        board.setPiece(10, 7, new Chancellor(10, 7, true));
+        board.setPiece(2, 7, new Rook(2, 7, false));
+        board.setPiece(0, 0, new King(0, 0, false));
+
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(true, moves);
+
+        // The pinned chancellor keeps its file moves, including taking the rook, but loses every leap
+        int from = Board.square(10, 7);
+        int chancellorMoves = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            if (Move.from(moves.get(i)) == from) {
+                assertEquals(7, Board.colOf(Move.to(moves.get(i))));
+                chancellorMoves++;
+            }
+        }
+        assertEquals(10, chancellorMoves);
+    }
+
+    @Test
+    public void testCheckEvasionsAndStalemate() {
+        board.setPiece(13, 1, new King(13, 1, true));
+        board.setPiece(13, 5, new Rook(13, 5, false));
+        board.setPiece(11, 1, new Bishop(11, 1, true));
+        board.setPiece(0, 13, new King(0, 13, false));
+
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(true, moves);
+
+        // The king steps off the rank or the bishop blocks; stepping back along the rook's line is no escape
+        assertEquals(4, moves.size());
+        assertTrue(moves.contains(Move.encode(Board.square(11, 1), Board.square(13, 3), Piece.BISHOP, Move.NO_CAPTURE, false)));
+        assertTrue(moves.contains(Move.encode(Board.square(13, 1), Board.square(12, 2), Piece.KING, Move.NO_CAPTURE, false)));
+        assertFalse(moves.contains(Move.encode(Board.square(13, 1), Board.square(13, 0), Piece.KING, Move.NO_CAPTURE, false)));
+        assertFalse(board.isCheckmate(true));
+
+        // A lone king with nowhere to go but not in check is stalemated
+        board.clearBoard();
+        board.setPiece(0, 0, new King(0, 0, false));
+        board.setPiece(2, 1, new Queen(2, 1, true));
+        board.setPiece(13, 13, new King(13, 13, true));
+        assertTrue(board.isStalemate(false));
+        assertFalse(board.isCheckmate(false));
+    }
+
+    private MoveList trialLegalMoves(boolean isWhite) {
+        MoveList moves = new MoveList();
+        board.generateMoves(isWhite, moves);
+        MoveList legal = new MoveList();
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            int king = board.getKingSquare(isWhite);
+            if (!board.isKingInCheck(Board.rowOf(king), Board.colOf(king), isWhite)) {
+                legal.add(moves.get(i));
+            }
+            board.unmakeMove();
+        }
+        return legal;
+    }
+
+    @Test
+    public void testStaticExchangeSimpleCaptures() {
+        board.setPiece(13, 13, new King(13, 13, true));
+        board.setPiece(0, 13, new King(0, 13, false));
+        board.setPiece(9, 4, new Pawn(9, 4, true));
+        board.setPiece(8, 5, new Rook(8, 5, false));
+        board.setPiece(6, 9, new Queen(6, 9, true));
+        board.setPiece(5, 9, new Pawn(5, 9, false));
+        board.setPiece(4, 8, new Pawn(4, 8, false));
+
+        // An undefended rook is won outright; a pawn defended by a pawn costs the queen that takes it
+        assertEquals(5.25, board.staticExchange(encode(9, 4, 8, 5)), 0.001);
+        assertEquals(1.0 - 9.5, board.staticExchange(encode(6, 9, 5, 9)), 0.001);
+    }
+
+    @Test
+    public void testStaticExchangeXRays() {
+        board.setPiece(13, 13, new King(13, 13, true));
+        board.setPiece(0, 13, new King(0, 13, false));
+
+        // Doubled rooks: the rook behind recaptures through the first one
+        board.setPiece(10, 0, new Rook(10, 0, true));
+        board.setPiece(11, 0, new Rook(11, 0, true));
+        board.setPiece(5, 0, new Pawn(5, 0, false));
+        board.setPiece(0, 0, new Rook(0, 0, false));
+        assertEquals(1.0, board.staticExchange(encode(10, 0, 5, 0)), 0.001);
+
+        // An archbishop behind a bishop on the same diagonal
+        board.setPiece(10, 3, new Bishop(10, 3, true));
+        board.setPiece(11, 2, new Archbishop(11, 2, true));
+        board.setPiece(5, 8, new Knight(5, 8, false));
+        board.setPiece(4, 7, new Pawn(4, 7, false));
+        assertEquals(2.0 - 3.625 + 1.0, board.staticExchange(encode(10, 3, 5, 8)), 0.001);
+    }
+
+    @Test
+    public void testStaticExchangePromotion() {
+        board.setPiece(13, 13, new King(13, 13, true));
+        board.setPiece(0, 13, new King(0, 13, false));
+        board.setPiece(8, 4, new Pawn(8, 4, true));
+        board.setPiece(7, 5, new Rook(7, 5, false));
+        board.setPiece(6, 6, new Pawn(6, 6, false));
+
+        // Capturing onto row 7 promotes, but so does the black pawn that takes the new queen back
+        assertEquals(5.25 - 1.0 - (9.5 - 1.0), board.staticExchange(encode(8, 4, 7, 5)), 0.001);
+    }
+
+    @Test
+    public void testStaticExchangeFairyLeapers() {
+        board.setPiece(13, 13, new King(13, 13, true));
+        board.setPiece(0, 13, new King(0, 13, false));
+        board.setPiece(9, 4, new Camel(9, 4, true));
+        board.setPiece(6, 5, new Pawn(6, 5, false));
+        board.setPiece(5, 5, new Guard(5, 5, false));
+
+        // The guard steps back onto the camel, and nothing of white's recaptures
+        assertEquals(1.0 - 2.0, board.staticExchange(encode(9, 4, 6, 5)), 0.001);
+
+        // Once a chancellor defends the square with its knight leap, the guard no longer wins by recapturing
+        board.setPiece(8, 6, new Chancellor(8, 6, true));
+        assertEquals(1.0, board.staticExchange(encode(9, 4, 6, 5)), 0.001);
+    }
+
+    private int encode(int fromRow, int fromCol, int toRow, int toCol) {
+        int to = Board.square(toRow, toCol);
+        int captured = board.getPieceType(to);
+        return Move.encode(Board.square(fromRow, fromCol), to, board.getPieceType(Board.square(fromRow, fromCol)),
+                           captured < 0 ? Move.NO_CAPTURE : captured, false);
+    }
+
+    @Test
+    public void testNullMove() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        long key = board.getZobristKey();
+
+        board.makeNullMove();
+
+        assertFalse(board.isWhiteToMove());
+        assertEquals(1, board.getPly());
+        assertNotEquals(key, board.getZobristKey());
+        assertEquals(board.computeZobristKey(), board.getZobristKey());
+
+        board.unmakeNullMove();
+
+        assertTrue(board.isWhiteToMove());
+        assertEquals(0, board.getPly());
+        assertEquals(key, board.getZobristKey());
+    }
+
+    @Test
+    public void testCopyIsIndependent() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        board.movePiece(12, 7, 10, 7);
+        Board copy = new Board(board);
+
+        assertEquals(board.getZobristKey(), copy.getZobristKey());
+        assertEquals(board.isWhiteToMove(), copy.isWhiteToMove());
+        assertNotSame(board.getPiece(10, 7), copy.getPiece(10, 7));
+        assertTrue(copy.getPiece(10, 7).hasMoved());
+
+        // Moves on the copy leave the original untouched
+        long key = board.getZobristKey();
+        copy.makeMove(13, 7, 12, 7);
+        assertEquals(key, board.getZobristKey());
+        assertFalse(board.getPiece(13, 7).hasMoved());
+        assertNull(copy.getPiece(13, 7));
+    }
+
+    @Test
+    public void testCopyPositionReplacesBoard() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        board.movePiece(12, 7, 10, 7);
+        Board other = new Board();
+        other.setPiece(5, 5, new Queen(5, 5, false));
+        other.makeMove(5, 5, 6, 6);
+
+        // Whatever was on the other board, and its undo stack, is gone
+        other.copyPosition(board);
+        assertEquals(board.getZobristKey(), other.getZobristKey());
+        assertEquals(board.evaluateBoard(true), other.evaluateBoard(true));
+        assertEquals(board.getPieceCount(false), other.getPieceCount(false));
+        assertNull(other.getPiece(6, 6));
+        assertEquals(0, other.getPly());
+        assertTrue(other.getPiece(10, 7).hasMoved());
+    }
+
+    @Test
+    public void testCopyTakesCoordinatesFromSquares() {
+        board.setPiece(5, 5, new Queen(5, 5, false));
+        board.makeMove(5, 5, 6, 6);
+
+        // A move made for a search leaves the piece's own coordinates behind, but the copy's are right
+        Board copy = new Board(board);
+        assertEquals(6, copy.getPiece(6, 6).row);
+        assertEquals(6, copy.getPiece(6, 6).col);
+    }
 }
@@ -0,0 +1,55 @@
+package XXLChess;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluationCacheTest {
+    @Test
+    public void testCapacityIsPowerOfTwo() {
+        assertEquals(1024, new EvaluationCache(1500).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new EvaluationCache(0));
+    }
+
+    @Test
+    public void testStoreAndProbe() {
+        EvaluationCache cache = new EvaluationCache(64);
+        assertEquals(EvaluationCache.MISSING, cache.probe(12345L));
+
+        cache.store(12345L, -250);
+        assertEquals(-250, cache.probe(12345L));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testZeroKeyAndScore() {
+        // A board without pawns has pawn hash 0, and an empty slot must not look like it
+        EvaluationCache cache = new EvaluationCache(64);
+        assertEquals(EvaluationCache.MISSING, cache.probe(0L));
+        cache.store(0L, 0);
+        assertEquals(0, cache.probe(0L));
+    }
+
+    @Test
+    public void testCollidingKeyReplacesEntry() {
+        EvaluationCache cache = new EvaluationCache(64);
+        cache.store(5L, 10);
+        cache.store(5L + 64, 20);
+
+        assertEquals(EvaluationCache.MISSING, cache.probe(5L));
+        assertEquals(20, cache.probe(5L + 64));
+    }
+
+    @Test
+    public void testClear() {
+        EvaluationCache cache = new EvaluationCache(64);
+        cache.store(7L, 30);
+        cache.probe(7L);
+
+        cache.clear();
+
+        assertEquals(0, cache.getHits());
+        assertEquals(EvaluationCache.MISSING, cache.probe(7L));
+        assertEquals(1, cache.getMisses());
+    }
+}
@@ -0,0 +1,78 @@
+package XXLChess;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EvaluationTest {
+    @Test
+    public void testMaterialInCentipawns() {
+        assertEquals(100, Evaluation.material(Piece.PAWN));
+        assertEquals(525, Evaluation.material(Piece.ROOK));
+        assertEquals(950, Evaluation.material(Piece.QUEEN));
+        assertEquals(1200, Evaluation.material(Piece.AMAZON));
+    }
+
+    @Test
+    public void testBlackTablesAreMirrored() {
+        for (int type = 0; type < Piece.TYPE_COUNT; type++) {
+            if (type == Piece.PAWN) {
+                continue;
+            }
+            for (int row = 0; row < Board.SIZE; row++) {
+                for (int col = 0; col < Board.SIZE; col++) {
+                    assertEquals(Evaluation.placement(type, true, Board.square(row, col)),
+                                 Evaluation.placement(type, false, Board.square(Board.SIZE - 1 - row, col)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testKnightPrefersTheCentre() {
+        int corner = Evaluation.placement(Piece.KNIGHT, true, Board.square(13, 0));
+        int edge = Evaluation.placement(Piece.KNIGHT, true, Board.square(13, 6));
+        int centre = Evaluation.placement(Piece.KNIGHT, true, Board.square(7, 6));
+        assertTrue(corner < centre);
+        assertEquals(corner, edge);
+        assertTrue(centre > 0);
+    }
+
+    @Test
+    public void testPawnsGainAsTheyNearPromotion() {
+        // White pawns promote on row 7 after leaving row 12, black pawns after leaving row 1
+        assertEquals(0, Evaluation.placement(Piece.PAWN, true, Board.square(12, 4)));
+        assertEquals(0, Evaluation.placement(Piece.PAWN, false, Board.square(1, 4)));
+        assertTrue(Evaluation.placement(Piece.PAWN, true, Board.square(9, 4)) >
+                   Evaluation.placement(Piece.PAWN, true, Board.square(10, 4)));
+        assertTrue(Evaluation.placement(Piece.PAWN, true, Board.square(8, 4)) >
+                   Evaluation.placement(Piece.PAWN, true, Board.square(9, 4)));
+        assertEquals(Evaluation.placement(Piece.PAWN, true, Board.square(8, 4)),
+                     Evaluation.placement(Piece.PAWN, false, Board.square(6, 4)));
+    }
+
+    @Test
+    public void testKingStaysHome() {
+        assertTrue(Evaluation.placement(Piece.KING, true, Board.square(13, 6)) >
+                   Evaluation.placement(Piece.KING, true, Board.square(10, 6)));
+    }
+
+    @Test
+    public void testPawnStructure() {
+        Board board = new Board();
+        // White: doubled pawns on file 2, isolated from everything else, and a pawn on file 6 defended by one
+        // on file 7
+        board.setPiece(10, 2, new Pawn(10, 2, true));
+        board.setPiece(11, 2, new Pawn(11, 2, true));
+        board.setPiece(10, 6, new Pawn(10, 6, true));
+        board.setPiece(11, 7, new Pawn(11, 7, true));
+        int white = Evaluation.pawnStructure(board);
+        assertEquals(-15 - 2 * 12 + 8, white);
+
+        // The same structure for black, mirrored, scores the same against white
+        board.setPiece(3, 2, new Pawn(3, 2, false));
+        board.setPiece(2, 2, new Pawn(2, 2, false));
+        board.setPiece(3, 6, new Pawn(3, 6, false));
+        board.setPiece(2, 7, new Pawn(2, 7, false));
+        assertEquals(0, Evaluation.pawnStructure(board));
+    }
+}
@@ -41,4 +41,18 @@ public class GuardTest {
     public void testGetPieceValue() {
         assertEquals(5.0, guard.getPieceValue());
     }
+
+    @Test
+    public void testGuardDoesNotCastle() {
+        Board castlingBoard = new Board();
+        Guard homeGuard = new Guard(13, 7, true);
+        castlingBoard.setPiece(13, 7, homeGuard);
+        castlingBoard.setPiece(13, 13, new Rook(13, 13, true));
+
+        // The guard borrows the king's steps but not its castling
+        assertFalse(homeGuard.isMoveValid(13, 9, castlingBoard));
+        for (int[] move : homeGuard.getValidMoves(13, 7, castlingBoard)) {
+            assertFalse(move[0] == 13 && move[1] == 9, "The guard should not be able to castle");
+        }
+    }
 }
@@ -42,4 +42,72 @@ public class KingTest {
     public void testGetPieceValue() {
         assertEquals(99999.0, king.getPieceValue());
     }
+
+    @Test
+    public void testCastlingNeedsUnmovedKing() {
+        Board castlingBoard = new Board();
+        King homeKing = new King(13, 7, true);
+        castlingBoard.setPiece(13, 7, homeKing);
+        castlingBoard.setPiece(13, 13, new Rook(13, 13, true));
+
+        // An unmoved king with a clear path to an unmoved rook may castle
+        assertTrue(homeKing.isMoveValid(13, 9, castlingBoard));
+        assertTrue(containsMove(homeKing.getValidMoves(13, 7, castlingBoard), 13, 9));
+
+        // Once the king on the board has moved, neither the piece nor the shared definition castles
+        homeKing.setHasMoved(true);
+        assertFalse(homeKing.isMoveValid(13, 9, castlingBoard));
+        assertFalse(containsMove(Piece.definition(Piece.KING, true).getValidMoves(13, 7, castlingBoard), 13, 9));
+    }
+
+    @Test
+    public void testNoCastlingNextToCorner() {
+        Board castlingBoard = new Board();
+        King cornerKing = new King(13, 1, true);
+        castlingBoard.setPiece(13, 1, cornerKing);
+        castlingBoard.setPiece(13, 0, new Rook(13, 0, true));
+
+        // A two-square step towards the rook would leave the board, so only the ordinary steps remain
+        List<int[]> validMoves = cornerKing.getValidMoves(13, 1, castlingBoard);
+        assertEquals(4, validMoves.size());
+        assertFalse(cornerKing.isMoveValid(13, 3, castlingBoard));
+    }
+
+    @Test
+    public void testNoCastlingThroughAttackedSquares() {
+        Board castlingBoard = new Board();
+        King homeKing = new King(13, 7, true);
+        castlingBoard.setPiece(13, 7, homeKing);
+        castlingBoard.setPiece(13, 13, new Rook(13, 13, true));
+        castlingBoard.setPiece(13, 0, new Rook(13, 0, true));
+        // A black rook covers the square the king passes over on its way to the last column
+        castlingBoard.setPiece(2, 8, new Rook(2, 8, false));
+
+        assertFalse(homeKing.isMoveValid(13, 9, castlingBoard));
+        assertFalse(containsMove(homeKing.getValidMoves(13, 7, castlingBoard), 13, 9));
+        assertTrue(homeKing.isMoveValid(13, 5, castlingBoard));
+
+        // Nor may a king in check castle out of it
+        castlingBoard.setPiece(2, 8, null);
+        castlingBoard.setPiece(2, 7, new Rook(2, 7, false));
+        assertFalse(homeKing.isMoveValid(13, 9, castlingBoard));
+        assertFalse(homeKing.isMoveValid(13, 5, castlingBoard));
+        MoveList moves = new MoveList();
+        castlingBoard.generateLegalMoves(true, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (Move.from(move) == Board.square(13, 7)) {
+                assertEquals(1, Math.abs(Board.colOf(Move.to(move)) - 7), "only single steps out of check");
+            }
+        }
+    }
+
+    private boolean containsMove(List<int[]> moves, int row, int col) {
+        for (int[] move : moves) {
+            if (move[0] == row && move[1] == col) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
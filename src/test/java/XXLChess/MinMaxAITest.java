@@ -1,5 +1,10 @@
 package XXLChess;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
@@ -16,6 +21,8 @@ class MinMaxAITest {
 
     @Test
     void testGetBestMove_initialSetup() {
+        // An empty board has no moves to return, so search the starting position
+        board.loadBoardFromTextFile("src/main/level.txt");
         MinMaxAI whiteAI = new MinMaxAI(board, 3, true);
         MinMaxAI blackAI = new MinMaxAI(board, 3, false);
         int[] bestMove = whiteAI.getBestMove();
@@ -54,11 +61,11 @@ class MinMaxAITest {
     @Test
     public void testMaxValueWithDepthZero() {
         board.clearBoard();
-        // Set up a simple board position
-        board.setPiece(0, 0, new King(0, 0, true));
-        board.setPiece(1, 0, new Pawn(1, 0, true));
-        board.setPiece(2, 0, new Pawn(2, 0, false));
-        board.setPiece(1, 1, new King(1, 1, false));
+        // Set up a simple, quiet board position with equal material
+        board.setPiece(13, 6, new King(13, 6, true));
+        board.setPiece(12, 3, new Pawn(12, 3, true));
+        board.setPiece(0, 6, new King(0, 6, false));
+        board.setPiece(1, 3, new Pawn(1, 3, false));
         MinMaxAI minMaxAI = new MinMaxAI(board, 0, true);
     
         // Act
@@ -67,4 +74,434 @@ class MinMaxAITest {
         // Assert
         assertEquals(0.0, maxValue, 0.01);
     }    
+
+    @Test
+    void testNoMoveWhenMated() {
+        board.clearBoard();
+        board.setPiece(0, 0, new King(0, 0, false));
+        board.setPiece(1, 1, new Queen(1, 1, true));
+        board.setPiece(2, 2, new King(2, 2, true));
+
+        // The defended queen mates the king in the corner, so black has nothing to play
+        assertNull(new MinMaxAI(board, 3, false).getBestMove());
+    }
+
+    @Test
+    void testQuiescenceWinsHangingPiece() {
+        board.clearBoard();
+        board.setPiece(13, 13, new King(13, 13, true));
+        board.setPiece(10, 0, new Rook(10, 0, true));
+        board.setPiece(0, 13, new King(0, 13, false));
+        board.setPiece(5, 0, new Queen(5, 0, false));
+        MinMaxAI minMaxAI = new MinMaxAI(board, 0, true);
+
+        // The undefended queen is taken even at depth 0
+        double maxValue = minMaxAI.maxValue(0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, true);
+
+        // The rook ends up on the queen's square, which carries its placement bonus
+        assertEquals(5.25 + Evaluation.placement(Piece.ROOK, true, Board.square(5, 0)) / 100.0, maxValue, 0.001);
+        assertEquals(0, board.getPly());
+    }
+
+    @Test
+    void testQuiescenceSeesRecapture() {
+        board.clearBoard();
+        board.setPiece(13, 13, new King(13, 13, true));
+        board.setPiece(10, 0, new Rook(10, 0, true));
+        board.setPiece(0, 13, new King(0, 13, false));
+        board.setPiece(5, 0, new Queen(5, 0, false));
+        board.setPiece(0, 0, new Rook(0, 0, false));
+        MinMaxAI minMaxAI = new MinMaxAI(board, 0, true);
+
+        // Taking the queen loses the rook back, which still beats leaving the queen on the board
+        double maxValue = minMaxAI.maxValue(0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, true);
+
+        assertEquals(-5.25 - Evaluation.placement(Piece.ROOK, false, Board.square(5, 0)) / 100.0, maxValue, 0.001);
+    }
+
+    @Test
+    void testGetBestMoveLeavesBoardUnchanged() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        MinMaxAI ai = new MinMaxAI(board, 2, false);
+
+        ai.getBestMove();
+
+        // Every piece is back on its square and none is marked as moved
+        for (int row = 0; row < Board.SIZE; row++) {
+            for (int col = 0; col < Board.SIZE; col++) {
+                Piece piece = board.getPiece(row, col);
+                if (piece != null) {
+                    assertFalse(piece.hasMoved(), "Searching should not mark pieces as moved");
+                    assertEquals(row, piece.row);
+                    assertEquals(col, piece.col);
+                }
+            }
+        }
+        assertEquals(0, board.getPly());
+        assertEquals(56, countPieces());
+    }
+
+    @Test
+    void testTranspositionTableKeepsResults() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        board.movePiece(12, 7, 10, 7);
+        TranspositionTable table = new TranspositionTable(4);
+
+        int[] fresh = new MinMaxAI(board, 3, false).getBestMove();
+        int[] first = new MinMaxAI(board, 3, false, table).getBestMove();
+        int[] second = new MinMaxAI(board, 3, false, table).getBestMove();
+
+        // Searching again on a filled table finds the same move
+        assertArrayEquals(fresh, first);
+        assertArrayEquals(first, second);
+
+        // The position after the chosen move was stored with the depth left below the root
+        board.makeMove(first[0], first[1], first[2], first[3]);
+        long entry = table.probe(board.getZobristKey());
+        board.unmakeMove();
+        assertNotEquals(0L, entry);
+        assertEquals(2, TranspositionTable.depth(entry));
+    }
+
+    @Test
+    void testTimeLimits() {
+        // Three minutes left: plan 4.5 seconds, cut off at 13.5
+        assertEquals(4500, MinMaxAI.softLimit(180000));
+        assertEquals(13500, MinMaxAI.hardLimit(180000));
+        // Short on time the hard limit never takes more than a quarter of what is left
+        assertEquals(25, MinMaxAI.softLimit(1000));
+        assertEquals(75, MinMaxAI.hardLimit(1000));
+        assertEquals(0, MinMaxAI.hardLimit(0));
+    }
+
+    @Test
+    void testIterativeDeepeningRespectsClock() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        MinMaxAI ai = new MinMaxAI(board, 8, false);
+        ai.setTimeLeft(400);
+
+        long start = System.currentTimeMillis();
+        int[] bestMove = ai.getBestMove();
+        long elapsed = System.currentTimeMillis() - start;
+
+        // A completed shallow iteration supplies a legal move long before depth 8 could finish
+        assertTrue(board.isMoveValid(bestMove[0], bestMove[1], bestMove[2], bestMove[3]));
+        assertTrue(ai.getCompletedDepth() >= 1 && ai.getCompletedDepth() < 8);
+        assertTrue(elapsed < 5000, "search took " + elapsed + " ms");
+        assertEquals(0, board.getPly());
+    }
+
+    @Test
+    void testWithoutClockReachesFullDepth() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        MinMaxAI ai = new MinMaxAI(board, 2, false);
+
+        ai.getBestMove();
+
+        assertEquals(2, ai.getCompletedDepth());
+        assertTrue(ai.getNodes() > 0);
+    }
+
+    @Test
+    void testHelperThreadsLeaveBoardUnchanged() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        MinMaxAI ai = new MinMaxAI(board, 3, false);
+        ExecutorService helperPool = Executors.newFixedThreadPool(2);
+        ai.setHelpers(2, helperPool);
+        int pieces = countPieces();
+
+        int[] bestMove = ai.getBestMove();
+        helperPool.shutdown();
+
+        // The helpers search their own copies, so only the main search touches this board and it undoes its moves
+        assertTrue(board.isMoveValid(bestMove[0], bestMove[1], bestMove[2], bestMove[3]));
+        assertEquals(3, ai.getCompletedDepth());
+        assertEquals(pieces, countPieces());
+        assertEquals(0, board.getPly());
+    }
+
+    @Test
+    void testRootSplittingMatchesSerialSearch() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        int[] serialMove = new MinMaxAI(board, 3, false).getBestMove();
+        MinMaxAI ai = new MinMaxAI(board, 3, false);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        ai.setRootPool(pool);
+
+        int[] splitMove = ai.getBestMove();
+        pool.shutdown();
+
+        assertArrayEquals(serialMove, splitMove);
+        assertEquals(3, ai.getCompletedDepth());
+        assertEquals(0, board.getPly());
+    }
+
+    @Test
+    void testRootSplittingFollowsNewPositions() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        MinMaxAI ai = new MinMaxAI(board, 3, false);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        ai.setRootPool(pool);
+
+        // The pool threads keep their searchers between searches, which must pick up the moves played since
+        int[] first = ai.getBestMove();
+        board.movePiece(first[0], first[1], first[2], first[3]);
+        int[] reply = new MinMaxAI(board, 2, true).getBestMove();
+        board.movePiece(reply[0], reply[1], reply[2], reply[3]);
+        int[] serialMove = new MinMaxAI(board, 3, false).getBestMove();
+        int[] splitMove = ai.getBestMove();
+        pool.shutdown();
+
+        assertArrayEquals(serialMove, splitMove);
+        assertEquals(0, board.getPly());
+    }
+
+    @Test
+    void testHelperPoolKeptBetweenSearches() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        ExecutorService helperPool = Executors.newFixedThreadPool(1);
+
+        // The pool is the caller's, so it is still running after each search and serves the next one
+        for (int i = 0; i < 2; i++) {
+            MinMaxAI ai = new MinMaxAI(board, 2, false);
+            ai.setHelpers(1, helperPool);
+            assertNotNull(ai.getBestMove());
+            assertFalse(helperPool.isShutdown());
+        }
+        helperPool.shutdown();
+    }
+
+    void testPrincipalVariationIsPlayable() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        MinMaxAI ai = new MinMaxAI(board, 4, false);
+
+        int[] bestMove = ai.getBestMove();
+        int[] line = ai.getPrincipalVariation();
+
+        // The line starts with the chosen move and every move in it is legal when its turn comes
+        assertTrue(line.length >= 1 && line.length <= 4);
+        assertArrayEquals(bestMove, Move.toArray(line[0]));
+        boolean isWhite = false;
+        MoveList legal = new MoveList();
+        for (int move : line) {
+            legal.clear();
+            board.generateLegalMoves(isWhite, legal);
+            assertTrue(legal.contains(move), Move.toString(move));
+            board.makeMove(move);
+            isWhite = !isWhite;
+        }
+        for (int i = 0; i < line.length; i++) {
+            board.unmakeMove();
+        }
+        assertEquals(line.length, ai.getPrincipalVariationText().split(" ").length);
+    }
+
+    @Test
+    void testSelectiveSearchSavesNodes() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        MinMaxAI selective = new MinMaxAI(board, 4, true);
+        MinMaxAI full = new MinMaxAI(board, 4, true);
+        full.setNullMovePruning(false);
+        full.setLateMoveReductions(false);
+        full.setFutilityPruning(false);
+        full.setRazoring(false);
+
+        int[] selectiveMove = selective.getBestMove();
+        int[] fullMove = full.getBestMove();
+
+        assertTrue(board.isMoveValid(selectiveMove[0], selectiveMove[1], selectiveMove[2], selectiveMove[3]));
+        assertTrue(board.isMoveValid(fullMove[0], fullMove[1], fullMove[2], fullMove[3]));
+        assertTrue(selective.getNodes() < full.getNodes(), selective.getNodes() + " >= " + full.getNodes());
+    }
+
+    @Test
+    void testMaxValueCountsPliesFromItsOwnPosition() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        board.makeMove(12, 7, 11, 7);
+        board.makeMove(1, 7, 2, 7);
+        MinMaxAI ai = new MinMaxAI(board, 2, true);
+        ai.getBestMove();
+        board.unmakeMove();
+        board.unmakeMove();
+
+        // The earlier search's root was two plies deeper than this position, which must not matter
+        double score = ai.maxValue(2, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, true);
+        assertEquals(score, new MinMaxAI(board, 2, true).maxValue(2, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, true), 0.01);
+        assertEquals(0, board.getPly());
+    }
+
+    @Test
+    void testSearchUsesEvaluationCaches() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        MinMaxAI ai = new MinMaxAI(board, 3, true);
+
+        ai.getBestMove();
+
+        // Transpositions reach the same leaves, and most leaves share their pawns with an earlier one
+        assertTrue(ai.getEvaluationCache().getHits() > 0);
+        assertTrue(ai.getPawnCache().getHits() > ai.getPawnCache().getMisses());
+    }
+
+    void testEvaluationCachesKeptBetweenSearches() {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        TranspositionTable table = new TranspositionTable(1);
+        EvaluationCache evaluationCache = new EvaluationCache(MinMaxAI.EVALUATION_CACHE_ENTRIES);
+        EvaluationCache pawnCache = new EvaluationCache(MinMaxAI.PAWN_CACHE_ENTRIES);
+        MinMaxAI first = new MinMaxAI(board, 2, true, table, evaluationCache, pawnCache);
+        first.getBestMove();
+        long misses = evaluationCache.getMisses();
+
+        // A new searcher given the same caches finds the leaves the first one evaluated
+        table.clear();
+        MinMaxAI second = new MinMaxAI(board, 2, true, table, evaluationCache, pawnCache);
+        second.getBestMove();
+
+        assertSame(evaluationCache, second.getEvaluationCache());
+        assertSame(pawnCache, second.getPawnCache());
+        assertEquals(misses, evaluationCache.getMisses());
+    }
+
+    @Test
+    void testCheckmateAndStalemateScores() {
+        board.clearBoard();
+        board.setPiece(13, 13, new King(13, 13, true));
+        board.setPiece(0, 0, new King(0, 0, false));
+        board.setPiece(2, 1, new Queen(2, 1, true));
+        MinMaxAI minMaxAI = new MinMaxAI(board, 1, false);
+
+        // The queen covers every square around the king without checking it: a draw, whatever the material
+        assertEquals(0.0, minMaxAI.maxValue(1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false), 0.001);
+
+        // With a rook checking along the back row it is mate instead
+        board.setPiece(0, 13, new Rook(0, 13, true));
+        assertEquals(-MinMaxAI.MATE / 100.0, minMaxAI.maxValue(1, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, false), 0.001);
+    }
+
+    @Test
+    void testNoMoveWhenStalemated() {
+        board.clearBoard();
+        board.setPiece(13, 13, new King(13, 13, true));
+        board.setPiece(0, 0, new King(0, 0, false));
+        board.setPiece(2, 1, new Queen(2, 1, true));
+
+        // Every way of searching the root reports that there is no move rather than a zeroed one
+        MinMaxAI serial = new MinMaxAI(board, 3, false);
+        assertNull(serial.getBestMove());
+        assertEquals(0, serial.getCompletedDepth());
+
+        MinMaxAI helped = new MinMaxAI(board, 3, false);
+        ExecutorService helperPool = Executors.newFixedThreadPool(2);
+        helped.setHelpers(2, helperPool);
+        assertNull(helped.getBestMove());
+        helperPool.shutdown();
+
+        MinMaxAI split = new MinMaxAI(board, 3, false);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        split.setRootPool(pool);
+        assertNull(split.getBestMove());
+        pool.shutdown();
+        assertEquals(0, board.getPly());
+    }
+
+    @Test
+    void testFindsMateInOne() {
+        board.clearBoard();
+        board.setPiece(13, 13, new King(13, 13, true));
+        board.setPiece(0, 0, new King(0, 0, false));
+        board.setPiece(2, 1, new Queen(2, 1, true));
+        board.setPiece(5, 13, new Rook(5, 13, true));
+        MinMaxAI minMaxAI = new MinMaxAI(board, 3, true);
+
+        int[] move = minMaxAI.getBestMove();
+
+        assertArrayEquals(new int[]{5, 13, 0, 13}, move);
+        // Mate is delivered on the first ply and found on the second
+        assertEquals((MinMaxAI.MATE - 1) / 100.0, minMaxAI.getScore(), 0.001);
+    }
+
+    @Test
+    void testStopFromAnotherThread() throws Exception {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        MinMaxAI ai = new MinMaxAI(board, 20, true);
+        ExecutorService helperPool = Executors.newFixedThreadPool(1);
+        ai.setHelpers(1, helperPool);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<int[]> result = executor.submit(ai::getBestMove);
+            Thread.sleep(50);
+            ai.stop();
+
+            // Without a clock only the stop signal ends a depth 20 search
+            result.get(10, TimeUnit.SECONDS);
+            assertTrue(ai.isCancelled());
+            assertEquals(0, board.getPly());
+        } finally {
+            executor.shutdownNow();
+            helperPool.shutdown();
+        }
+
+        // A stopped AI returns straight away
+        assertNull(ai.getBestMove());
+    }
+
+    @Test
+    void testPonderHitStartsClock() throws Exception {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        MinMaxAI ai = new MinMaxAI(new Board(board), 20, true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Pondering without a clock would go on to depth 20; the hit puts it on a 4 second clock
+            Future<int[]> result = executor.submit(ai::getBestMove);
+            Thread.sleep(50);
+            ai.ponderHit(4000);
+
+            int[] move = result.get(10, TimeUnit.SECONDS);
+            assertFalse(ai.isCancelled());
+            assertTrue(ai.getCompletedDepth() > 0);
+            assertTrue(board.isMoveValid(move[0], move[1], move[2], move[3]));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testStopFreesSharedHelperPool() throws Exception {
+        board.loadBoardFromTextFile("src/main/level.txt");
+        MinMaxAI ponderer = new MinMaxAI(new Board(board), 20, true);
+        ExecutorService helperPool = Executors.newFixedThreadPool(1);
+        ponderer.setHelpers(1, helperPool);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<int[]> result = executor.submit(ponderer::getBestMove);
+            Thread.sleep(50);
+            ponderer.stop();
+            result.get(10, TimeUnit.SECONDS);
+
+            // The stopped search's helper has left the pool, so the next search's helpers are not held up
+            helperPool.submit(() -> { }).get(1, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+            helperPool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testInvalidHelperCount() {
+        MinMaxAI ai = new MinMaxAI(board, 3, false);
+
+        assertThrows(IllegalArgumentException.class, () -> ai.setHelpers(-1, null));
+        assertThrows(IllegalArgumentException.class, () -> ai.setHelpers(1, null));
+    }
+
+    private int countPieces() {
+        int count = 0;
+        for (int row = 0; row < Board.SIZE; row++) {
+            for (int col = 0; col < Board.SIZE; col++) {
+                if (board.getPiece(row, col) != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
 }
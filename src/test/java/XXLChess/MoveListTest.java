@@ -0,0 +1,46 @@
+package XXLChess;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveListTest {
+
+    @Test
+    public void testAddGetAndClear() {
+        MoveList moves = new MoveList();
+        moves.add(5);
+        moves.add(7);
+
+        assertEquals(2, moves.size());
+        assertEquals(7, moves.get(1));
+        assertTrue(moves.contains(5));
+        assertFalse(moves.contains(6));
+
+        moves.clear();
+        assertEquals(0, moves.size());
+        assertFalse(moves.contains(5));
+    }
+
+    @Test
+    public void testGrowsPastInitialCapacity() {
+        MoveList moves = new MoveList();
+        for (int i = 0; i < 1000; i++) {
+            moves.add(i);
+        }
+
+        assertEquals(1000, moves.size());
+        assertEquals(999, moves.get(999));
+    }
+
+    @Test
+    public void testScoresKeptPastInitialCapacity() {
+        MoveList moves = new MoveList();
+        for (int i = 0; i < 1000; i++) {
+            moves.add(i);
+            moves.setScore(i, -i);
+        }
+
+        assertEquals(0, moves.getScore(0));
+        assertEquals(-999, moves.getScore(999));
+    }
+}
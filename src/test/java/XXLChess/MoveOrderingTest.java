@@ -0,0 +1,161 @@
+package XXLChess;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveOrderingTest {
+    private static final int QUIET_A = Move.encode(20, 34, Piece.KNIGHT, Move.NO_CAPTURE, false);
+    private static final int QUIET_B = Move.encode(21, 35, Piece.ROOK, Move.NO_CAPTURE, false);
+    private static final int QUIET_C = Move.encode(22, 36, Piece.BISHOP, Move.NO_CAPTURE, false);
+
+    @Test
+    public void testValueRanks() {
+        assertEquals(0, MoveOrdering.valueRank(Piece.PAWN));
+        assertEquals(9, MoveOrdering.valueRank(Piece.AMAZON));
+        assertEquals(10, MoveOrdering.valueRank(Piece.KING));
+        assertEquals(MoveOrdering.valueRank(Piece.KNIGHT), MoveOrdering.valueRank(Piece.CAMEL));
+    }
+
+    @Test
+    public void testCapturesOrderedByVictimThenAttacker() {
+        int pawnTakesPawn = Move.encode(30, 16, Piece.PAWN, Piece.PAWN, false);
+        int rookTakesQueen = Move.encode(31, 17, Piece.ROOK, Piece.QUEEN, false);
+        int pawnTakesQueen = Move.encode(32, 18, Piece.PAWN, Piece.QUEEN, false);
+        int amazonTakesAmazon = Move.encode(33, 19, Piece.AMAZON, Piece.AMAZON, false);
+        MoveList moves = list(QUIET_A, pawnTakesPawn, rookTakesQueen, pawnTakesQueen, amazonTakesAmazon);
+
+        new MoveOrdering().order(moves, 0);
+
+        assertArrayEquals(new int[]{amazonTakesAmazon, pawnTakesQueen, rookTakesQueen, pawnTakesPawn, QUIET_A},
+                          toArray(moves));
+    }
+
+    @Test
+    public void testPromotionBeforeQuietMoves() {
+        int promotion = Move.encode(110, 96, Piece.PAWN, Move.NO_CAPTURE, true);
+        MoveList moves = list(QUIET_A, promotion);
+
+        new MoveOrdering().order(moves, 0);
+
+        assertEquals(promotion, moves.get(0));
+    }
+
+    @Test
+    public void testLosingCapturesGoLast() {
+        Board board = new Board();
+        board.setPiece(13, 13, new King(13, 13, true));
+        board.setPiece(0, 13, new King(0, 13, false));
+        board.setPiece(6, 9, new Queen(6, 9, true));
+        board.setPiece(5, 9, new Pawn(5, 9, false));
+        board.setPiece(4, 8, new Pawn(4, 8, false));
+        int queenTakesPawn = Move.encode(Board.square(6, 9), Board.square(5, 9), Piece.QUEEN, Piece.PAWN, false);
+        int queenRetreats = Move.encode(Board.square(6, 9), Board.square(7, 9), Piece.QUEEN, Move.NO_CAPTURE, false);
+        MoveList moves = list(queenTakesPawn, queenRetreats);
+        MoveOrdering ordering = new MoveOrdering(board);
+
+        ordering.order(moves, 0);
+
+        // The pawn is defended by another pawn, so taking it loses the queen
+        assertTrue(ordering.isLosingCapture(queenTakesPawn));
+        assertArrayEquals(new int[]{queenRetreats, queenTakesPawn}, toArray(moves));
+    }
+
+    @Test
+    public void testNextPicksLazilyWithHashMoveFirst() {
+        int pawnTakesPawn = Move.encode(30, 16, Piece.PAWN, Piece.PAWN, false);
+        int rookTakesQueen = Move.encode(31, 17, Piece.ROOK, Piece.QUEEN, false);
+        MoveList moves = list(QUIET_A, pawnTakesPawn, QUIET_B, rookTakesQueen);
+        MoveOrdering ordering = new MoveOrdering();
+
+        // The hash move is matched on its squares alone and goes before every capture
+        ordering.scoreMoves(moves, 0, QUIET_B & 0xFFFF);
+        assertEquals(QUIET_B, ordering.next(moves, 0));
+        assertEquals(rookTakesQueen, ordering.next(moves, 1));
+
+        // Picking leaves the moves not yet picked in their generation order
+        assertArrayEquals(new int[]{QUIET_B, rookTakesQueen, QUIET_A, pawnTakesPawn}, toArray(moves));
+        assertEquals(pawnTakesPawn, ordering.next(moves, 2));
+        assertEquals(QUIET_A, ordering.next(moves, 3));
+    }
+
+    @Test
+    public void testLosingCaptureScoreIsKept() {
+        Board board = new Board();
+        board.setPiece(13, 13, new King(13, 13, true));
+        board.setPiece(0, 13, new King(0, 13, false));
+        board.setPiece(6, 9, new Queen(6, 9, true));
+        board.setPiece(5, 9, new Pawn(5, 9, false));
+        board.setPiece(4, 8, new Pawn(4, 8, false));
+        int queenTakesPawn = Move.encode(Board.square(6, 9), Board.square(5, 9), Piece.QUEEN, Piece.PAWN, false);
+        MoveList moves = list(queenTakesPawn, QUIET_A);
+        MoveOrdering ordering = new MoveOrdering(board);
+
+        ordering.scoreMoves(moves, 0, Move.NONE);
+        ordering.next(moves, 0);
+        ordering.next(moves, 1);
+
+        // The exchange evaluated while scoring marks the capture, so a search need not evaluate it again
+        assertEquals(queenTakesPawn, moves.get(1));
+        assertTrue(MoveOrdering.isLosingScore(moves.getScore(1)));
+        assertFalse(MoveOrdering.isLosingScore(moves.getScore(0)));
+    }
+
+    @Test
+    public void testKillersAndHistory() {
+        MoveOrdering ordering = new MoveOrdering();
+        ordering.recordCutoff(QUIET_C, 3, 2);
+        ordering.recordCutoff(QUIET_B, 3, 2);
+
+        assertEquals(QUIET_B, ordering.getKiller(3, 0));
+        assertEquals(QUIET_C, ordering.getKiller(3, 1));
+        assertEquals(4, ordering.getHistory(QUIET_B));
+
+        // At another ply only the history counts, and both moves have the same, so generation order is kept
+        MoveList moves = list(QUIET_A, QUIET_C, QUIET_B);
+        ordering.order(moves, 4);
+        assertArrayEquals(new int[]{QUIET_C, QUIET_B, QUIET_A}, toArray(moves));
+
+        // At the killers' own ply the most recent killer comes first
+        moves = list(QUIET_A, QUIET_C, QUIET_B);
+        ordering.order(moves, 3);
+        assertArrayEquals(new int[]{QUIET_B, QUIET_C, QUIET_A}, toArray(moves));
+    }
+
+    @Test
+    public void testCapturesAreNotRecorded() {
+        MoveOrdering ordering = new MoveOrdering();
+        int capture = Move.encode(30, 16, Piece.PAWN, Piece.PAWN, false);
+
+        ordering.recordCutoff(capture, 0, 5);
+
+        assertEquals(Move.NONE, ordering.getKiller(0, 0));
+        assertEquals(0, ordering.getHistory(capture));
+    }
+
+    @Test
+    public void testNewSearchForgetsKillersAndAgesHistory() {
+        MoveOrdering ordering = new MoveOrdering();
+        ordering.recordCutoff(QUIET_A, 1, 4);
+
+        ordering.newSearch();
+
+        assertEquals(Move.NONE, ordering.getKiller(1, 0));
+        assertEquals(8, ordering.getHistory(QUIET_A));
+    }
+
+    private static MoveList list(int... moves) {
+        MoveList list = new MoveList();
+        for (int move : moves) {
+            list.add(move);
+        }
+        return list;
+    }
+
+    private static int[] toArray(MoveList moves) {
+        int[] array = new int[moves.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = moves.get(i);
+        }
+        return array;
+    }
+}
@@ -0,0 +1,42 @@
+package XXLChess;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveTest {
+
+    @Test
+    public void testEncodeAndDecode() {
+        int move = Move.encode(Board.square(1, 3), Board.square(12, 3), Piece.QUEEN, Piece.PAWN, false);
+
+        assertEquals(Board.square(1, 3), Move.from(move));
+        assertEquals(Board.square(12, 3), Move.to(move));
+        assertEquals(Piece.QUEEN, Move.piece(move));
+        assertEquals(Piece.PAWN, Move.captured(move));
+        assertTrue(Move.isCapture(move));
+        assertFalse(Move.isPromotion(move));
+    }
+
+    @Test
+    public void testQuietPromotion() {
+        int move = Move.encode(Board.square(8, 0), Board.square(7, 0), Piece.PAWN, Move.NO_CAPTURE, true);
+
+        assertFalse(Move.isCapture(move));
+        assertTrue(Move.isPromotion(move));
+        assertNotEquals(Move.NONE, move);
+    }
+
+    @Test
+    public void testToArray() {
+        int move = Move.encode(Board.square(12, 7), Board.square(10, 7), Piece.PAWN, Move.NO_CAPTURE, false);
+
+        assertArrayEquals(new int[]{12, 7, 10, 7}, Move.toArray(move));
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals("h2h4", Move.toString(Move.encode(Board.square(12, 7), Board.square(10, 7), Piece.PAWN, Move.NO_CAPTURE, false)));
+        assertEquals("a6xa7=Q", Move.toString(Move.encode(Board.square(8, 0), Board.square(7, 0), Piece.PAWN, Piece.ROOK, true)));
+        assertEquals("none", Move.toString(Move.NONE));
+    }
+}
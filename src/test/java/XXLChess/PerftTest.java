@@ -0,0 +1,69 @@
+package XXLChess;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTest {
+
+    private Board board;
+
+    @BeforeEach
+    public void setUp() {
+        board = new Board();
+        board.loadBoardFromTextFile("src/main/level.txt");
+    }
+
+    @Test
+    public void testStartingPositionCounts() {
+        Perft perft = new Perft(board);
+        long key = board.getZobristKey();
+
+        assertEquals(1, perft.perft(0));
+        assertEquals(46, perft.perft(1));
+        assertEquals(2116, perft.perft(2));
+        assertEquals(111887, perft.perft(3));
+
+        // Counting leaves the board as it was
+        assertEquals(key, board.getZobristKey());
+        assertEquals(0, board.getPly());
+    }
+
+    @Test
+    public void testHashedCountsMatch() {
+        Perft perft = new Perft(board, 1);
+
+        assertEquals(111887, perft.perft(3));
+        // The second run is answered from the table
+        assertEquals(111887, perft.perft(3));
+        assertEquals(2116, perft.perft(2));
+    }
+
+    @Test
+    public void testDivideSumsToPerft() {
+        Map<Integer, Long> counts = new Perft(board).divide(2);
+
+        assertEquals(46, counts.size());
+        long total = 0;
+        for (long nodes : counts.values()) {
+            total += nodes;
+        }
+        assertEquals(2116, total);
+        assertEquals(46, (long) counts.get(Move.encode(Board.square(12, 7), Board.square(10, 7), Piece.PAWN, Move.NO_CAPTURE, false)));
+    }
+
+    @Test
+    public void testParallelCountsMatch() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertEquals(111887, new Perft(board).parallelPerft(3, pool));
+            assertEquals(111887, new Perft(board, 1).parallelPerft(3, pool));
+            assertEquals(46, new Perft(board).parallelPerft(1, pool));
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(0, board.getPly());
+    }
+}
@@ -0,0 +1,62 @@
+package XXLChess;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TranspositionTableTest {
+
+    private TranspositionTable table;
+
+    @BeforeEach
+    public void setUp() {
+        table = new TranspositionTable(1);
+    }
+
+    @Test
+    public void testCapacityIsPowerOfTwo() {
+        assertEquals(1 << 16, table.capacity());
+        assertEquals(1 << 18, new TranspositionTable(5).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(0));
+    }
+
+    @Test
+    public void testStoreAndProbe() {
+        int move = Move.encode(Board.square(12, 7), Board.square(10, 7), Piece.PAWN, Move.NO_CAPTURE, false);
+        table.store(0x1234_5678_9ABC_DEF0L, 5, TranspositionTable.LOWER, -3625, move);
+
+        long entry = table.probe(0x1234_5678_9ABC_DEF0L);
+        assertNotEquals(0L, entry);
+        assertEquals(5, TranspositionTable.depth(entry));
+        assertEquals(TranspositionTable.LOWER, TranspositionTable.bound(entry));
+        assertEquals(-3625, TranspositionTable.score(entry));
+        assertEquals(move & 0xFFFF, TranspositionTable.move(entry));
+
+        // A different key in the same slot is a miss
+        assertEquals(0L, table.probe(0x7777_5678_9ABC_DEF0L));
+        assertEquals(0L, table.probe(42L));
+    }
+
+    @Test
+    public void testDepthPreferredReplacement() {
+        long key = 99L;
+        long other = key + table.capacity();
+        table.store(key, 6, TranspositionTable.EXACT, 10, Move.NONE);
+
+        // A shallower result for another position in the same slot does not replace a deeper one
+        table.store(other, 2, TranspositionTable.EXACT, 20, Move.NONE);
+        assertEquals(0L, table.probe(other));
+        assertEquals(10, TranspositionTable.score(table.probe(key)));
+
+        // Equal depth replaces, and so does anything once the entry is from an earlier search
+        table.store(other, 6, TranspositionTable.EXACT, 30, Move.NONE);
+        assertEquals(30, TranspositionTable.score(table.probe(other)));
+        table.store(key, 8, TranspositionTable.EXACT, 40, Move.NONE);
+        table.newSearch();
+        table.store(other, 1, TranspositionTable.UPPER, 50, Move.NONE);
+        assertEquals(50, TranspositionTable.score(table.probe(other)));
+
+        table.clear();
+        assertEquals(0L, table.probe(other));
+    }
+}